@@ -72,8 +72,12 @@ public class Settings {
     public IntSetting regularSave = new IntSetting(-1, true, 1, 60, 5, true, false, SVGPathIcons.CLOCK, "regularSave",
             "settings.regularSave.title", "settings.regularSave.tooltip");
     
+    @SettingObject
+    public BooleanSetting binaryEditFiles = new BooleanSetting(false, true, SVGPathIcons.SAVE, "binaryEditFiles",
+            "settings.binaryEditFiles.title", "settings.binaryEditFiles.tooltip");
+    
     @SettingsGroup(title = "settings.group.save")
-    public Setting<?>[] saveGroup = {autoSave, regularSave};
+    public Setting<?>[] saveGroup = {autoSave, regularSave, binaryEditFiles};
     
     
     @SettingObject
@@ -157,12 +161,32 @@ public class Settings {
     public BooleanSetting renderWithZoom = new BooleanSetting(true, true, SVGPathIcons.REDO, "renderWithZoom",
             "settings.renderWithZoom", "");
     
+    @SettingObject
+    public BooleanSetting renderTiles = new BooleanSetting(true, true, SVGPathIcons.SEARCH, "renderTiles",
+            "settings.renderTiles", "settings.renderTiles.tooltip");
+    
+    @SettingObject
+    public BooleanSetting progressiveRender = new BooleanSetting(true, true, SVGPathIcons.FORWARD_ARROWS, "progressiveRender",
+            "settings.progressiveRender", "settings.progressiveRender.tooltip");
+    
+    @SettingObject
+    public IntSetting renderCacheMemory = new IntSetting(25, true, 5, 60, 5, false, true, SVGPathIcons.LAYERS, "renderCacheMemory",
+            "settings.renderCacheMemory", "settings.renderCacheMemory.tooltip");
+    
+    @SettingObject
+    public IntSetting pdfMemory = new IntSetting(10, true, 5, 50, 5, false, true, SVGPathIcons.PDF_FILE, "pdfMemory",
+            "settings.pdfMemory", "settings.pdfMemory.tooltip");
+    
+    @SettingObject
+    public IntSetting exportWorkers = new IntSetting(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)), true, 1, 8, 1, false, true, SVGPathIcons.EXPORT, "exportWorkers",
+            "settings.exportWorkers", "settings.exportWorkers.tooltip");
+    
     @SettingObject
     public BooleanSetting menuForceOpen = new BooleanSetting(false, true, SVGPathIcons.CLOCK, "menuForceOpenDelay",
             "settings.menuForceOpenDelay", "settings.menuForceOpenDelay.tooltip");
     
     @SettingsGroup(title = "menuBar.tools.debug")
-    public Setting<?>[] debugGroup = {zoom, renderZoom, renderWithZoom, menuForceOpen}; // menu popup force
+    public Setting<?>[] debugGroup = {zoom, renderZoom, renderWithZoom, renderTiles, progressiveRender, renderCacheMemory, pdfMemory, exportWorkers, menuForceOpen}; // menu popup force
     
     
     public Settings(){
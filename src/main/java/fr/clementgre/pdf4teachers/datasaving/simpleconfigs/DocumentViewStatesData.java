@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.datasaving.simpleconfigs;
+
+import fr.clementgre.pdf4teachers.datasaving.Config;
+import fr.clementgre.pdf4teachers.document.DocumentViewStates;
+import fr.clementgre.pdf4teachers.document.DocumentViewStates.ViewState;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class DocumentViewStatesData extends SimpleConfig {
+    
+    public DocumentViewStatesData(){
+        super("documents_view");
+    }
+    
+    @Override
+    protected void manageLoadedData(Config config){
+        LinkedHashMap<String, ViewState> states = new LinkedHashMap<>();
+        for(Map.Entry<String, Object> entry : config.getSection("documents").entrySet()){
+            if(entry.getValue() instanceof HashMap){
+                HashMap<String, Object> data = Config.castSection(entry.getValue());
+                states.put(entry.getKey(), new ViewState(Config.getDouble(data, "scroll"), Config.getDouble(data, "zoom")));
+            }
+        }
+        DocumentViewStates.load(states);
+    }
+    
+    @Override
+    protected void unableToLoadConfig(){
+    
+    }
+    
+    @Override
+    protected void addDataToConfig(Config config){
+        LinkedHashMap<String, Object> documents = new LinkedHashMap<>();
+        for(Map.Entry<String, ViewState> entry : DocumentViewStates.getAll().entrySet()){
+            LinkedHashMap<String, Object> data = new LinkedHashMap<>();
+            data.put("scroll", entry.getValue().scrollValue());
+            data.put("zoom", entry.getValue().zoom());
+            documents.put(entry.getKey(), data);
+        }
+        config.set("documents", documents);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.datasaving.simpleconfigs;
+
+import fr.clementgre.pdf4teachers.datasaving.Config;
+import fr.clementgre.pdf4teachers.document.editions.EditionIndex;
+import fr.clementgre.pdf4teachers.document.editions.EditionIndex.Entry;
+import fr.clementgre.pdf4teachers.document.editions.data.EditionSummary;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class EditionIndexData extends SimpleConfig {
+    
+    // Must be incremented when the content of EditionSummary changes: the index is then computed again.
+    private static final long INDEX_VERSION = 1;
+    
+    public EditionIndexData(){
+        super("editions_index");
+    }
+    
+    @Override
+    protected void manageLoadedData(Config config){
+        if(config.getLong("version") != INDEX_VERSION) return;
+        
+        HashMap<String, Entry> entries = new HashMap<>();
+        for(Map.Entry<String, Object> entry : config.getSection("editions").entrySet()){
+            if(entry.getValue() instanceof HashMap){
+                HashMap<String, Object> data = Config.castSection(entry.getValue());
+                entries.put(entry.getKey(), new Entry(Config.getLong(data, "lastModified"), Config.getLong(data, "length"),
+                        EditionSummary.getFromYAML(Config.getSection(data, "summary"))));
+            }
+        }
+        EditionIndex.load(entries);
+    }
+    
+    @Override
+    protected void unableToLoadConfig(){
+    
+    }
+    
+    @Override
+    protected void addDataToConfig(Config config){
+        LinkedHashMap<String, Object> editions = new LinkedHashMap<>();
+        for(Map.Entry<String, Entry> entry : EditionIndex.getAll().entrySet()){
+            LinkedHashMap<String, Object> data = new LinkedHashMap<>();
+            data.put("lastModified", entry.getValue().lastModified());
+            data.put("length", entry.getValue().length());
+            data.put("summary", entry.getValue().summary().toYAML());
+            editions.put(entry.getKey(), data);
+        }
+        config.set("version", INDEX_VERSION);
+        config.set("editions", editions);
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.datasaving.simpleconfigs;
+
+import fr.clementgre.pdf4teachers.datasaving.Config;
+import fr.clementgre.pdf4teachers.document.editions.EditionNamesIndex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class EditionNamesData extends SimpleConfig {
+    
+    public EditionNamesData(){
+        super("editions_names");
+    }
+    
+    @Override
+    protected void manageLoadedData(Config config){
+        HashMap<String, HashSet<String>> editFiles = new HashMap<>();
+        for(Map.Entry<String, Object> entry : config.getSection("names").entrySet()){
+            if(entry.getValue() instanceof ArrayList<?> list){
+                HashSet<String> names = new HashSet<>();
+                for(Object name : list) names.add(name.toString());
+                editFiles.put(entry.getKey(), names);
+            }
+        }
+        EditionNamesIndex.load(editFiles, config.getLong("directoriesState"));
+    }
+    
+    @Override
+    protected void unableToLoadConfig(){
+    
+    }
+    
+    @Override
+    protected void addDataToConfig(Config config){
+        HashMap<String, HashSet<String>> editFiles = EditionNamesIndex.getAll();
+        if(editFiles == null) return; // Never built nor loaded
+        
+        LinkedHashMap<String, Object> names = new LinkedHashMap<>();
+        editFiles.forEach((name, editFileNames) -> names.put(name, new ArrayList<>(editFileNames)));
+        config.set("directoriesState", EditionNamesIndex.getDirectoriesState());
+        config.set("names", names);
+    }
+}
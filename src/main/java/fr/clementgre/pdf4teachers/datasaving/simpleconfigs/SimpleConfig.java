@@ -21,6 +21,9 @@ public abstract class SimpleConfig {
         UserData.registerSimpleConfig(new VectorElementsData());
         UserData.registerSimpleConfig(new SkillsAssessmentData());
         UserData.registerSimpleConfig(new SystemFontsData());
+        UserData.registerSimpleConfig(new DocumentViewStatesData());
+        UserData.registerSimpleConfig(new EditionIndexData());
+        UserData.registerSimpleConfig(new EditionNamesData());
     }
     
     private final String filename;
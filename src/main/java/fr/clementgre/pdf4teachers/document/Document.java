@@ -7,6 +7,7 @@ package fr.clementgre.pdf4teachers.document;
 
 import fr.clementgre.pdf4teachers.Main;
 import fr.clementgre.pdf4teachers.document.editions.Edition;
+import fr.clementgre.pdf4teachers.document.editions.EditionSaver;
 import fr.clementgre.pdf4teachers.document.editions.elements.Element;
 import fr.clementgre.pdf4teachers.document.editions.elements.GradeElement;
 import fr.clementgre.pdf4teachers.document.editions.elements.GraphicElement;
@@ -18,11 +19,9 @@ import fr.clementgre.pdf4teachers.document.render.display.PageStatus;
 import fr.clementgre.pdf4teachers.interfaces.windows.MainWindow;
 import fr.clementgre.pdf4teachers.interfaces.windows.language.TR;
 import fr.clementgre.pdf4teachers.utils.MathUtils;
-import fr.clementgre.pdf4teachers.utils.PlatformUtils;
 import fr.clementgre.pdf4teachers.utils.dialogs.alerts.ButtonPosition;
 import fr.clementgre.pdf4teachers.utils.dialogs.alerts.CustomAlert;
 import fr.clementgre.pdf4teachers.utils.dialogs.alerts.WarningAlert;
-import javafx.application.Platform;
 import javafx.geometry.Bounds;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
@@ -49,27 +48,6 @@ public class Document {
     public PDFPagesRender pdfPagesRender;
     private UndoEngine undoEngine;
     
-    private boolean documentSaverNeedToStop;
-    public void stopDocumentSaver(){
-        documentSaverNeedToStop = true;
-    }
-    private final Thread documentSaver = new Thread(() -> {
-        documentSaverNeedToStop = false;
-        while(!documentSaverNeedToStop){
-            if(Main.settings.regularSave.getValue() != -1){
-                
-                PlatformUtils.sleepThreadMinutes(Main.settings.regularSave.getValue());
-                if(!documentSaverNeedToStop && !Edition.isSave()){
-                    Platform.runLater(() -> edition.save(true));
-                }
-                
-            }else{
-                // Should not be too big because it keeps the document as a CG Root Object.
-                PlatformUtils.sleepThreadSeconds(30);
-            }
-        }
-    }, "Document AutoSaver");
-    
     public Document(File file) throws IOException{
         this.file = file;
         
@@ -86,6 +64,7 @@ public class Document {
             pages.add(page);
         }
         getPage(0).updatePosition(PageRenderer.getPageMargin(), false);
+        updateRenderingZoomFactor();
         updateShowsStatus();
     }
     
@@ -100,7 +79,12 @@ public class Document {
         }
     }
     
+    // Must be called before the pages are rendered with a new zoom factor: the renders with another factor are dropped.
+    public void updateRenderingZoomFactor(){
+        pdfPagesRender.setRenderingZoomFactor(PageRenderer.getRenderingZoomFactor());
+    }
     public void updateZoom(){
+        updateRenderingZoomFactor();
         for(PageRenderer page : pages){
             page.updateZoom();
         }
@@ -116,7 +100,6 @@ public class Document {
     public boolean loadEdition(boolean updateScrollValue){
         this.edition = new Edition(file, this);
         if(edition.load(updateScrollValue)){
-            if(!documentSaver.isAlive()) documentSaver.start();
             this.undoEngine = new UndoEngine(true);
             return true;
         }
@@ -129,6 +112,10 @@ public class Document {
     public void setCurrentScrollValue(double value){
         MainWindow.mainScreen.zoomOperator.vScrollBar.setValue(value);
     }
+    // The view state is saved with the user data, it does not modify the edit file.
+    public void saveViewState(){
+        DocumentViewStates.put(file, new DocumentViewStates.ViewState(getLastScrollValue(), MainWindow.mainScreen.zoomOperator.getPaneScale()));
+    }
     
     public ArrayList<Element> getElements(){
         return pages.stream()
@@ -168,15 +155,20 @@ public class Document {
         this.undoEngine = null;
     }
     /**
-     * Save the edition of this document
+     * Save the edition of this document, and wait until the edit file is written.
      *
      * @param doShowIgnoreWarning if user click on "Ignore", the WarningAlert for editing/exporting an edition that is not saved will be displayed.
      * @return false if action has been cancelled, true otherwise, whatever saved or ignored.
      */
     public boolean save(boolean doShowIgnoreWarning){
+        boolean result = saveEdition(doShowIgnoreWarning);
+        EditionSaver.flush(); // Callers read or move the edit file
+        return result;
+    }
+    private boolean saveEdition(boolean doShowIgnoreWarning){
         
         if(Edition.isSave()){
-            edition.saveLastScrollValue();
+            saveViewState();
             return true;
         }
         
@@ -208,7 +200,7 @@ public class Document {
                         .execute();
                 if(!exportAnyway) return false;
             }
-            edition.saveLastScrollValue();
+            saveViewState();
             return true;
         }
         
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// View state of the documents (scroll position and zoom), restored when a document is opened again.
+// Kept in memory and saved with the user data (see DocumentViewStatesData), apart from the edit files:
+// saving the view state of a document does not read nor rewrite its edition.
+public class DocumentViewStates {
+    
+    private static final int MAX_DOCUMENTS = 1000;
+    
+    /**
+     * @param scrollValue The vertical scroll value, between 0 and 1 (see ZoomOperator.getLastVScrollValue()).
+     * @param zoom The scale of the pages pane.
+     */
+    public record ViewState(double scrollValue, double zoom) {}
+    
+    // PDF file path -> View state, the least recently used first.
+    private static final LinkedHashMap<String, ViewState> states = new LinkedHashMap<>(16, .75f, true);
+    
+    // Returns null if the document has never been opened.
+    public static synchronized ViewState get(File file){
+        return states.get(file.getAbsolutePath());
+    }
+    
+    public static synchronized void put(File file, ViewState state){
+        states.put(file.getAbsolutePath(), state);
+        
+        Iterator<String> iterator = states.keySet().iterator();
+        while(states.size() > MAX_DOCUMENTS && iterator.hasNext()){
+            iterator.next();
+            iterator.remove();
+        }
+    }
+    
+    // Loaded states do not replace the states of the documents opened during the loading.
+    public static synchronized void load(Map<String, ViewState> loadedStates){
+        LinkedHashMap<String, ViewState> newStates = new LinkedHashMap<>(loadedStates);
+        newStates.putAll(states);
+        states.clear();
+        states.putAll(newStates);
+    }
+    
+    public static synchronized LinkedHashMap<String, ViewState> getAll(){
+        return new LinkedHashMap<>(states);
+    }
+}
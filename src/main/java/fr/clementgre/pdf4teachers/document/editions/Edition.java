@@ -6,8 +6,9 @@
 package fr.clementgre.pdf4teachers.document.editions;
 
 import fr.clementgre.pdf4teachers.Main;
-import fr.clementgre.pdf4teachers.datasaving.Config;
 import fr.clementgre.pdf4teachers.document.Document;
+import fr.clementgre.pdf4teachers.document.DocumentViewStates;
+import fr.clementgre.pdf4teachers.document.editions.data.*;
 import fr.clementgre.pdf4teachers.document.editions.elements.*;
 import fr.clementgre.pdf4teachers.document.render.display.PageRenderer;
 import fr.clementgre.pdf4teachers.interfaces.windows.MainWindow;
@@ -16,15 +17,14 @@ import fr.clementgre.pdf4teachers.interfaces.windows.log.Log;
 import fr.clementgre.pdf4teachers.panel.MainScreen.MainScreen;
 import fr.clementgre.pdf4teachers.panel.sidebar.grades.GradeTreeItem;
 import fr.clementgre.pdf4teachers.panel.sidebar.grades.GradeTreeView;
+import fr.clementgre.pdf4teachers.panel.sidebar.skills.data.EditionSkill;
 import fr.clementgre.pdf4teachers.panel.sidebar.skills.data.Notation;
 import fr.clementgre.pdf4teachers.panel.sidebar.skills.data.Skill;
 import fr.clementgre.pdf4teachers.panel.sidebar.skills.data.SkillsAssessment;
-import fr.clementgre.pdf4teachers.utils.MathUtils;
 import fr.clementgre.pdf4teachers.utils.PlatformUtils;
 import fr.clementgre.pdf4teachers.utils.StringUtils;
 import fr.clementgre.pdf4teachers.utils.dialogs.alerts.ConfirmAlert;
 import fr.clementgre.pdf4teachers.utils.dialogs.alerts.ErrorAlert;
-import fr.clementgre.pdf4teachers.utils.interfaces.CallBackArg;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.scene.paint.Color;
@@ -35,9 +35,7 @@ import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
-@SuppressWarnings("unchecked")
 public class Edition{
     
     private final File file;
@@ -46,43 +44,46 @@ public class Edition{
     
     public Document document;
     
+    // Last snapshot of the elements of each page and of each grade, reused by getData() while they are not modified.
+    // The callers of setUnsave() give the modified element or page, that is then read again at the next save.
+    private record PageData(int page, List<VectorElementData> vectors, List<ImageElementData> images,
+                            List<TextElementData> texts, SkillTableElementData skillTable) {}
+    private HashMap<PageRenderer, PageData> pagesData = new HashMap<>();
+    private HashMap<GradeElement, GradeElementData> gradesData = new HashMap<>();
+    // Serialized elements of the last save
+    private final EditionFragments fragments = new EditionFragments();
+    
     public Edition(File file, Document document){
         this.document = document;
         this.file = file;
         this.editFile = getEditFile(file);
     }
     
-    // LOAD ORDER: Texts < Images < Vectors < Grades
+    // LOAD ORDER: Vectors < Images < Texts < Skills < Grades
     public boolean load(boolean updateScrollValue){
-        new File(Main.dataFolder + "editions").mkdirs();
+        EditionFiles.getEditionsDir().mkdirs();
         MainWindow.gradeTab.treeView.clearElements(true, false); // Generate root in case of no root in edition
         
         try{
+            EditionSaver.flush();
+            DocumentViewStates.ViewState viewState = DocumentViewStates.get(file);
+            if(viewState != null && updateScrollValue) document.setCurrentScrollValue(viewState.scrollValue());
+            
             if(!editFile.exists()) return true; // File does not exist
-            Config config = new Config(editFile);
-            config.load();
-            int versionID = (int) config.getLong("versionID");
-    
-            boolean upscaleGrid = versionID == 0; // Between 1.2.1 and 1.3.0, the grid size was multiplied by 100
+            EditionData data = EditionData.load(editFile);
             
-            Double lastScrollValue = config.getDoubleNull("lastScrollValue");
-            if(lastScrollValue != null && updateScrollValue) document.setCurrentScrollValue(lastScrollValue);
-    
-            loadItemsInPage(config.getSection("vectors").entrySet(), elementData -> {
-                VectorElement.readYAMLDataAndCreate(elementData.getValue(), elementData.getKey());
-            });
-            loadItemsInPage(config.getSection("images").entrySet(), elementData -> {
-                ImageElement.readYAMLDataAndCreate(elementData.getValue(), elementData.getKey());
-            });
-            loadItemsInPage(config.getSection("texts").entrySet(), elementData -> {
-                TextElement.readYAMLDataAndCreate(elementData.getValue(), elementData.getKey(), upscaleGrid);
-            });
+            // Older versions stored the scroll value in the edit file
+            if(viewState == null && data.lastScrollValue() != null && updateScrollValue) document.setCurrentScrollValue(data.lastScrollValue());
+            
+            data.vectors().forEach(VectorElement::createFromData);
+            data.images().forEach(ImageElement::createFromData);
+            data.texts().forEach(TextElement::createFromData);
             // There is only one SkillTableElement (the grid) that contains all the skills
-            SkillTableElement.readYAMLDataAndCreate(config.getSection("skills"));
+            SkillTableElement.createFromData(data.skillTable());
+            data.grades().forEach(GradeElement::createFromData);
             
-            for(Object data : config.getList("grades")){
-                if(data instanceof Map) GradeElement.readYAMLDataAndCreate((HashMap<String, Object>) data, upscaleGrid);
-            }
+            // The edit file is rewritten in the format selected in the settings (YAML or binary)
+            if(EditionData.needsMigration(editFile)) EditionSaver.save(editFile, data);
             
             isSave.set(true);
             MainWindow.gradeTab.treeView.updateAllSum();
@@ -96,323 +97,138 @@ public class Edition{
     }
     
     public void save(boolean toast){
-        if(Edition.isSave()){
-            saveLastScrollValue();
-            return;
-        }
+        document.saveViewState();
+        if(Edition.isSave()) return;
         
-        try{
-            editFile.createNewFile();
-            Config config = new Config(editFile);
-            
-            LinkedHashMap<String, ArrayList<Object>> texts = new LinkedHashMap<>();
-            LinkedHashMap<String, ArrayList<Object>> images = new LinkedHashMap<>();
-            LinkedHashMap<String, ArrayList<Object>> vectors = new LinkedHashMap<>();
-            ArrayList<Object> grades = new ArrayList<>();
-            LinkedHashMap<Object, Object> skills = new LinkedHashMap<>();
-            
-            
-            // NON GRADES ELEMENTS
-            int counter = 0;
-            for(PageRenderer page : document.getPages()){
-                ArrayList<Object> pageVectorsData = getPageDataFromElements(page.getElements(), VectorElement.class);
-                if(pageVectorsData != null){
-                    vectors.put("page" + page.getPage(), pageVectorsData);
-                    counter += pageVectorsData.size();
-                }
-                ArrayList<Object> pageImagesData = getPageDataFromElements(page.getElements(), ImageElement.class);
-                if(pageImagesData != null){
-                    images.put("page" + page.getPage(), pageImagesData);
-                    counter += pageImagesData.size();
-                }
-                ArrayList<Object> pageTextsData = getPageDataFromElements(page.getElements(), TextElement.class);
-                if(pageTextsData != null){
-                    texts.put("page" + page.getPage(), pageTextsData);
-                    counter += pageTextsData.size();
-                }
-    
-                // There is only one SkillTableElement (the grid) that contains all the skills
-                if(skills.isEmpty()){
-                    SkillTableElement skillTableElement = (SkillTableElement) page.getElements().stream().filter(e -> e instanceof SkillTableElement).findAny().orElse(null);
-                    if(skillTableElement != null && skillTableElement.getAssessmentId() != 0){
-                        skills = skillTableElement.getYAMLData();
-                        counter ++;
-                    }
-                }
-            }
-            
-            // GRADES ELEMENTS
-            for(GradeTreeItem element : GradeTreeView.getGradesArray(GradeTreeView.getTotal())){
-                grades.add(element.getCore().getYAMLData());
-                if(!element.getCore().isDefaultGrade()) counter++;
-            }
-            
-            
-            
-            // delete edit file if edition is empty
-            if(counter == 0) editFile.delete();
-            else{
-                config.base.put("lastScrollValue", document.getLastScrollValue());
-                config.base.put("texts", texts);
-                config.base.put("grades", grades);
-                config.base.put("images", images);
-                config.base.put("vectors", vectors);
-                config.base.put("skills", skills);
-                config.set("versionID", Main.VERSION_ID);
-                config.save();
-            }
-            
-        }catch(IOException e){
-            Log.eNotified(e, "Can't save edition");
-        }
+        EditionSaver.cancelAutoSave();
+        EditionSaver.save(editFile, getData(), fragments); // The snapshot is written in background
         
         isSave.set(true);
         if(toast) MainWindow.footerBar.showToast(Color.web("#008e00"), Color.WHITE, TR.tr("footerBar.messages.saved"));
-        MainWindow.filesTab.files.refresh();
         
     }
     
-    public void saveLastScrollValue(){
-        if(!editFile.exists()) return;
-        try{
-            Config config = new Config(editFile);
-            config.load();
-            
-            config.base.put("lastScrollValue", document.getLastScrollValue());
+    // Snapshot of the elements of the document, must be called on the FX thread.
+    // Only the pages and the grades that were modified since the last call are read again.
+    public EditionData getData(){
+        ArrayList<VectorElementData> vectors = new ArrayList<>();
+        ArrayList<ImageElementData> images = new ArrayList<>();
+        ArrayList<TextElementData> texts = new ArrayList<>();
+        SkillTableElementData skillTable = null;
+        
+        HashMap<PageRenderer, PageData> newPagesData = new HashMap<>();
+        for(PageRenderer page : document.getPages()){
+            PageData pageData = pagesData.get(page);
+            if(pageData == null || pageData.page() != page.getPage()) pageData = getPageData(page);
+            newPagesData.put(page, pageData);
             
-            config.save();
-        }catch(Exception e){
-            Log.eNotified(e);
+            vectors.addAll(pageData.vectors());
+            images.addAll(pageData.images());
+            texts.addAll(pageData.texts());
+            if(skillTable == null) skillTable = pageData.skillTable();
+        }
+        pagesData = newPagesData; // Removed pages are forgotten
+        
+        ArrayList<GradeElementData> grades = new ArrayList<>();
+        HashMap<GradeElement, GradeElementData> newGradesData = new HashMap<>();
+        for(GradeTreeItem item : GradeTreeView.getGradesArray(GradeTreeView.getTotal())){
+            GradeElementData grade = gradesData.get(item.getCore());
+            if(grade == null) grade = item.getCore().toData();
+            newGradesData.put(item.getCore(), grade);
+            grades.add(grade);
         }
+        gradesData = newGradesData;
+        
+        // The scroll value is not saved in the edit file anymore (see DocumentViewStates)
+        return new EditionData(Main.VERSION_ID, null, vectors, images, texts, grades, skillTable);
+    }
+    private static PageData getPageData(PageRenderer page){
+        ArrayList<VectorElementData> vectors = new ArrayList<>();
+        ArrayList<ImageElementData> images = new ArrayList<>();
+        ArrayList<TextElementData> texts = new ArrayList<>();
+        SkillTableElementData skillTable = null;
+        
+        for(Element element : page.getElements()){
+            if(element instanceof VectorElement vector) vectors.add(vector.toData());
+            else if(element instanceof ImageElement image) images.add(image.toData());
+            else if(element instanceof TextElement text) texts.add(text.toData());
+            // There is only one SkillTableElement (the grid) that contains all the skills
+            else if(element instanceof SkillTableElement skillTableElement && skillTable == null && skillTableElement.getAssessmentId() != 0){
+                skillTable = skillTableElement.toData();
+            }
+        }
+        return new PageData(page.getPage(), List.copyOf(vectors), List.copyOf(images), List.copyOf(texts), skillTable);
     }
     
-    private ArrayList<Object> getPageDataFromElements(ArrayList<Element> elements, Class<? extends Element> acceptedElements){
-        ArrayList<Object> pageData = elements.stream()
-                .filter(acceptedElements::isInstance)
-                .map(Element::getYAMLData)
-                .collect(Collectors.toCollection(ArrayList::new));
-        if(pageData.size() >= 1) return pageData;
-        else return null;
+    private void invalidate(Element element){
+        if(element instanceof GradeElement grade){
+            // The grade and its parents (their values are sums of their children)
+            gradesData.keySet().removeIf(other -> other == grade || grade.getParentPath().startsWith(other.getPath()));
+        }else if(element.getPage() != null) pagesData.remove(element.getPage());
+        else invalidateAll();
+    }
+    private void invalidateAll(){
+        pagesData.clear();
+        gradesData.clear();
     }
     
     ///////////////////////////////////////////////////////////////////
     ///////////////////////////// STATIC //////////////////////////////
     ///////////////////////////////////////////////////////////////////
     
+    // Creates the elements of an edit file, without adding them to the document.
+    // Prefer EditionData.load() when the JavaFX elements are not needed.
     public static Element[] simpleLoad(File editFile) throws Exception{
-        
-        if(!editFile.exists()){ //file does not exist
-            return new Element[0];
-        }else{ // file exist
-            Config config = new Config(editFile);
-            config.load();
-            int versionID = (int) config.getLong("versionID");
-            
-            boolean upscaleGrid = versionID == 0; // Between 1.2.1 and 1.3.0, the grid size was multiplied by 100
-            
-            ArrayList<Element> elements = new ArrayList<>();
-    
-            loadItemsInPage(config.getSection("vectors").entrySet(), elementData -> {
-                elements.add(VectorElement.readYAMLDataAndGive(elementData.getValue(), false, elementData.getKey()));
-            });
-            loadItemsInPage(config.getSection("images").entrySet(), elementData -> {
-                elements.add(ImageElement.readYAMLDataAndGive(elementData.getValue(), false, elementData.getKey()));
-            });
-            loadItemsInPage(config.getSection("texts").entrySet(), elementData -> {
-                elements.add(TextElement.readYAMLDataAndGive(elementData.getValue(), false, elementData.getKey(), upscaleGrid));
-            });
-            
-            for(Object data : config.getList("grades")){
-                if(data instanceof Map)
-                    elements.add(GradeElement.readYAMLDataAndGive((HashMap<String, Object>) data, false, upscaleGrid));
-            }
-    
-            // There is only one SkillTableElement (the grid) that contains all the skills
-            elements.add(SkillTableElement.readYAMLDataAndGive(config.getSection("skills"), false));
-            
-            return elements.toArray(new Element[0]);
-        }
+        return EditionData.load(editFile).toElements();
     }
     
-    // For each element of a page map, call the callback.
-    // addCallBack : Key : Page | Value : Element Data
-    private static void loadItemsInPage(Set<Map.Entry<String, Object>> data, CallBackArg<Map.Entry<Integer, HashMap<String, Object>>> addCallBack){
-        for(Map.Entry<String, Object> pageData : data){
-            Integer page = MathUtils.parseIntOrNull(pageData.getKey().replaceFirst("page", ""));
-            if(page == null || !(pageData.getValue() instanceof List)) break;
-
-            for(Object elementData : ((List<Object>) pageData.getValue())){
-                if(elementData instanceof HashMap) addCallBack.call(Map.entry(page, (HashMap<String, Object>) elementData));
-            }
-        }
+    // Reads the edit file only if its summary is not in the EditionIndex, or is outdated.
+    public static int countElements(File editFile) throws Exception{
+        EditionSummary summary = EditionIndex.get(editFile);
+        return summary == null ? 0 : summary.elements();
     }
     
-    public static void simpleSave(File editFile, Element[] elements){
-        
-        try{
-            editFile.createNewFile();
-            Config config = new Config(editFile);
-            
-            LinkedHashMap<String, ArrayList<Object>> texts = new LinkedHashMap<>();
-            LinkedHashMap<String, ArrayList<Object>> images = new LinkedHashMap<>();
-            LinkedHashMap<String, ArrayList<Object>> vectors = new LinkedHashMap<>();
-            LinkedHashMap<Object, Object> skills = new LinkedHashMap<>();
-            ArrayList<Object> grades = new ArrayList<>();
-            
-            int counter = 0;
-            for(Element element : elements){
-                
-                if(!(element instanceof GradeElement)){
-                    if(element instanceof VectorElement){
-                        if(vectors.containsKey("page" + element.getPageNumber())){
-                            vectors.get("page" + element.getPageNumber()).add(element.getYAMLData());
-                        }else{
-                            vectors.put("page" + element.getPageNumber(), new ArrayList<>(Collections.singletonList(element.getYAMLData())));
-                        }
-                    }else if(element instanceof ImageElement){
-                        if(images.containsKey("page" + element.getPageNumber())){
-                            images.get("page" + element.getPageNumber()).add(element.getYAMLData());
-                        }else{
-                            images.put("page" + element.getPageNumber(), new ArrayList<>(Collections.singletonList(element.getYAMLData())));
-                        }
-                    }else if(element instanceof TextElement){
-                        if(texts.containsKey("page" + element.getPageNumber())){
-                            texts.get("page" + element.getPageNumber()).add(element.getYAMLData());
-                        }else{
-                            texts.put("page" + element.getPageNumber(), new ArrayList<>(Collections.singletonList(element.getYAMLData())));
-                        }
-                    }else if(element instanceof SkillTableElement skillTableElement){
-                        if(skillTableElement.getAssessmentId() != 0){
-                            skills = element.getYAMLData();
-                        }else counter--;
-                    }
-                    counter++;
-                }else{
-                    grades.add(element.getYAMLData());
-                    if(!((GradeElement) element).isDefaultGrade()) counter++;
-                }
-            }
-            // delete edit file if edition is empty
-            if(counter == 0) editFile.delete();
-            else{
-                config.base.put("texts", texts);
-                config.base.put("grades", grades);
-                config.base.put("images", images);
-                config.base.put("vectors", vectors);
-                config.base.put("skills", skills);
-                config.set("versionID", Main.VERSION_ID);
-                config.save();
-            }
-            
-        }catch(IOException e){
-            Log.eNotified(e);
-        }
+    public static EditionStats getEditionStats(File editFile) throws Exception{
+        return getEditionStats(EditionIndex.get(editFile));
     }
     
-    public static int countElements(File editFile) throws Exception{
+    // The assessment is got from the skills tab: must be called on the FX thread.
+    public static EditionStats getEditionStats(EditionSummary summary){
+        if(summary == null) return null; // file does not exist
         
-        if(!editFile.exists()){ //file does not exist
-            return 0;
-        }else{ // file already exist
-            Config config = new Config(editFile);
-            config.load();
-            
-            int count = countSection(config.getSection("texts")) + countSection(config.getSection("images")) + countSection(config.getSection("vectors"));
-
-            count += config.getList("grades")
-                    .stream()
-                    .filter(data -> data instanceof HashMap)
-                    .map(data -> GradeElement.getYAMLDataStats(convertInstanceOfObject(data, HashMap.class)))
-                    .filter(stats -> stats[0] != -1)
-                    .count();
-            long assessmentId = Config.getLong(config.getSection("skills"), "assessmentId");
-            if(assessmentId != 0) count++;
-            
-            return count;
-        }
-    }
-    
-    public static EditionStats getEditionStats(File editFile) throws Exception{
+        int totalCount = summary.texts() + summary.graphics() + summary.filledGrades();
         
-        if(!editFile.exists()){ //file does not exist
-            return null;
-            
-        }else{ // file already exist
-            Config config = new Config(editFile);
-            config.load();
-            
-            int texts = countSection(config.getSection("texts"));
-            int graphics = countSection(config.getSection("images")) + countSection(config.getSection("vectors"));
-    
-            double[] totalGrade = {-1, 0}; // Root grade value and total
-            int grades = 0; // All grade element count
-            int filledGrades = 0; // All entered grade
-            
-            for(Object data : config.getList("grades")){
-                if(data instanceof HashMap){
-                    double[] stats = GradeElement.getYAMLDataStats(convertInstanceOfObject(data, HashMap.class));
-                    if(stats.length == 2) totalGrade = stats; // get the root grade value and the root grade total
-                    if(stats[0] != -1) filledGrades++;
-                    grades++;
-                }
-            }
-            
-            int totalCount = texts + graphics + filledGrades;
-    
-            long assessmentId = Config.getLong(config.getSection("skills"), "assessmentId");
-            int skills = 0;
-            int filledNotations = 0;
-            SkillsAssessment assessment = null;
-            if(assessmentId != 0){
-                assessment = MainWindow.skillsTab.getAssessments().stream().filter(a -> a.getId() == assessmentId).findFirst().orElse(null);
-                if(assessment != null){
-                    skills = assessment.getSkills().size();
-                    ArrayList<Object> notationsData = Config.getList(config.getSection("skills"), "list");
-                    for(Object notationData : notationsData){
-                        if(notationData instanceof HashMap){
-                            long skillId = Config.getLong((HashMap<String, Object>) notationData, "skillId");
-                            long notationId = Config.getLong((HashMap<String, Object>) notationData, "notationId");
-                            if(Skill.getById(assessment, skillId) != null){ // Check the skill does not belong to another assessment
-                                if(notationId < 0 || Notation.getById(assessment, notationId) != null){  // Check the notation belongs to the assessment
-                                    filledNotations++;
-                                }
-                            }
+        long assessmentId = summary.assessmentId();
+        int skills = 0;
+        int filledNotations = 0;
+        SkillsAssessment assessment = null;
+        if(assessmentId != 0){
+            assessment = MainWindow.skillsTab.getAssessments().stream().filter(a -> a.getId() == assessmentId).findFirst().orElse(null);
+            if(assessment != null){
+                skills = assessment.getSkills().size();
+                for(EditionSkill editionSkill : summary.editionSkills()){
+                    if(Skill.getById(assessment, editionSkill.getSkillId()) != null){ // Check the skill does not belong to another assessment
+                        long notationId = editionSkill.getNotationId();
+                        if(notationId < 0 || Notation.getById(assessment, notationId) != null){  // Check the notation belongs to the assessment
+                            filledNotations++;
                         }
                     }
                 }
             }
-            if(filledNotations > 0) totalCount++;
-            
-            return new EditionStats(totalCount, texts, graphics, grades, filledGrades, totalGrade[0], totalGrade[1], assessment, skills, filledNotations);
         }
+        if(filledNotations > 0) totalCount++;
+        
+        return new EditionStats(totalCount, summary.texts(), summary.graphics(), summary.grades(), summary.filledGrades(),
+                summary.totalGradeValue(), summary.totalGradeOutOf(), assessment, skills, filledNotations);
     }
     
     public record EditionStats(int totalElements, int texts, int graphics, int grades, int filledGrades, double totalGradeValue, double totalGradeOutOf, SkillsAssessment assessment, int skills, int filledNotations){}
 
-    public static <T> T convertInstanceOfObject(Object o, Class<T> clazz) {
-        try {
-            return clazz.cast(o);
-        } catch(ClassCastException e) {
-            return null;
-        }
-    }
-    
-    private static int countSection(HashMap<String, Object> sectionData){
-        int count = 0;
-        for(Map.Entry<String, Object> pageData : sectionData.entrySet()){
-            Integer page = MathUtils.parseIntOrNull(pageData.getKey().replaceFirst("page", ""));
-            if(page == null || !(pageData.getValue() instanceof List)) break;
-            count += ((List<Object>) pageData.getValue()).size();
-        }
-        return count;
-    }
-
-    
     // get YAML file from PDF file
     public static File getEditFile(File pdfFile){
         String namePath = pdfFile.getParentFile().getAbsolutePath().replace(File.separator, "!E!").replace(":", "!P!");
         String nameName = pdfFile.getName() + ".yml";
-        return new File(Main.dataFolder + "editions" + File.separator + namePath + "!E!" + nameName);
+        return EditionFiles.getEditFile(namePath + "!E!" + nameName);
     }
     
     // get PDF file from YAML file
@@ -431,6 +247,7 @@ public class Edition{
     }
     
     public static void mergeEditFileWithEditFile(File fromEdit, File destEdit){
+        EditionSaver.flush();
         try{
             Files.copy(fromEdit.toPath(), destEdit.toPath(), StandardCopyOption.REPLACE_EXISTING);
         }catch(IOException e){
@@ -439,17 +256,14 @@ public class Edition{
         }
     }
     
+    // Edit file -> PDF file, of the other PDF files that have the same name. Uses the EditionNamesIndex: the editions directory is not scanned.
     public static HashMap<File, File> getEditFilesWithSameName(File originFile){
+        EditionSaver.flush();
         
         HashMap<File, File> files = new HashMap<>();
-        
-        for(File editFile : Objects.requireNonNull(new File(Main.dataFolder + "editions" + File.separator).listFiles())){
-            
+        for(File editFile : EditionNamesIndex.getEditFiles(originFile.getName())){
             File file = getFileFromEdit(editFile);
-            
-            if(file.getName().equals(originFile.getName()) && !file.equals(originFile)){
-                files.put(editFile, file);
-            }
+            if(!file.equals(originFile)) files.put(editFile, file);
         }
         return files;
         
@@ -463,8 +277,12 @@ public class Edition{
                     return;
                 }
             }
+            EditionSaver.flush();
+            boolean namesIndexUpToDate = EditionNamesIndex.isUpToDate();
             Edition.getEditFile(file).delete();
-            MainWindow.filesTab.files.refresh();
+            EditionIndex.remove(Edition.getEditFile(file));
+            EditionNamesIndex.onEditFileChanged(Edition.getEditFile(file), namesIndexUpToDate);
+            MainWindow.filesTab.files.refreshFile(file);
         }
     }
     
@@ -479,6 +297,7 @@ public class Edition{
             MainWindow.gradeTab.treeView.clearElements(true, false);
             Edition.setUnsave("Clear edit");
             MainWindow.mainScreen.document.edition.save(false);
+            EditionSaver.flush(); // The edit file is often replaced after being cleared
         }
     }
     
@@ -486,10 +305,37 @@ public class Edition{
         return isSave.get();
     }
     
+    // The modified element is unknown: all the elements will be read again at the next save.
     public static void setUnsave(String sourceDebug){
+        if(getOpenedEdition() != null) getOpenedEdition().invalidateAll();
+        markAsUnsave(sourceDebug);
+    }
+    public static void setUnsave(String sourceDebug, Element element){
+        if(element == null){
+            setUnsave(sourceDebug);
+            return;
+        }
+        if(getOpenedEdition() != null) getOpenedEdition().invalidate(element);
+        markAsUnsave(sourceDebug);
+    }
+    public static void setUnsave(String sourceDebug, PageRenderer page){
+        invalidatePage(page);
+        markAsUnsave(sourceDebug);
+    }
+    // Elements added, removed or moved on this page, even if the edition is not marked as unsaved (loading, page moves...)
+    public static void invalidatePage(PageRenderer page){
+        if(getOpenedEdition() != null) getOpenedEdition().pagesData.remove(page);
+    }
+    private static Edition getOpenedEdition(){
+        if(MainWindow.mainScreen == null || MainWindow.mainScreen.document == null) return null;
+        return MainWindow.mainScreen.document.edition;
+    }
+    
+    private static void markAsUnsave(String sourceDebug){
         if(false) Log.t("Unsave Edition from: " + sourceDebug);
         
         isSave.set(false);
+        EditionSaver.onEditionChanged();
         MainWindow.footerBar.updateStats();
     }
     
@@ -6,8 +6,8 @@
 package fr.clementgre.pdf4teachers.document.editions;
 
 import fr.clementgre.pdf4teachers.datasaving.Config;
-import fr.clementgre.pdf4teachers.document.editions.elements.Element;
-import fr.clementgre.pdf4teachers.document.editions.elements.GradeElement;
+import fr.clementgre.pdf4teachers.document.editions.data.EditionData;
+import fr.clementgre.pdf4teachers.document.editions.data.GradeElementData;
 import fr.clementgre.pdf4teachers.interfaces.windows.MainWindow;
 import fr.clementgre.pdf4teachers.interfaces.windows.language.TR;
 import fr.clementgre.pdf4teachers.interfaces.windows.log.Log;
@@ -68,11 +68,8 @@ public class EditionExporter {
         if(onlyGrades){
             gradeCopyGradeScale = new GradeCopyGradeScaleDialog();
             try{
-                Element[] elements = Edition.simpleLoad(file);
-                for(Element element : elements){
-                    if(element instanceof GradeElement){
-                        gradeCopyGradeScale.ratings.add(((GradeElement) element).toGradeRating());
-                    }
+                for(GradeElementData grade : EditionData.load(file).grades()){
+                    gradeCopyGradeScale.ratings.add(grade.toGradeRating());
                 }
                 int result = gradeCopyGradeScale.copyToFile(MainWindow.mainScreen.document.getFile(), false, copyLocations.isSelected());
                 if(result == 0){
@@ -110,10 +107,9 @@ public class EditionExporter {
                             }
                             
                             if(onlyGrades){
-                                Config config = new Config(editFile);
-                                config.load();
-                                config.set("grades", loadedConfig.getList("grades"));
-                                loadedConfig.base = config.base;
+                                HashMap<String, Object> base = EditionData.load(editFile).toYAML();
+                                base.put("grades", loadedConfig.getList("grades"));
+                                loadedConfig.base = base;
                             }
                             
                             loadedConfig.setFile(editFile);
@@ -133,7 +129,7 @@ public class EditionExporter {
                                 
                                 HashMap<String, Object> data = (HashMap<String, Object>) loadedConfig.base.get(pdfFile.getName());
                                 if(onlyGrades){
-                                    config.load();
+                                    config.base = EditionData.load(config.getFile()).toYAML();
                                     config.set("grades", Config.getList(data, "grades"));
                                 }else{
                                     config.base = data;
@@ -254,8 +250,9 @@ public class EditionExporter {
                 File editFile = Edition.getEditFile(pdfFile);
                 if(!editFile.exists()) return Map.entry(new Config(), 2); // Check HasEdit
                 
+                // Edit files may be binary: exports are always YAML.
                 Config config = new Config(editFile);
-                config.load();
+                config.base = EditionData.load(editFile).toYAML();
                 config.setName(pdfFile.getName());
                 
                 if(onlyGrades){
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document.editions;
+
+import fr.clementgre.pdf4teachers.Main;
+import fr.clementgre.pdf4teachers.document.editions.data.EditionData;
+import fr.clementgre.pdf4teachers.interfaces.windows.log.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+// Layout of the editions directory: the edit files are spread in 256 sub-directories named from a hash of the edit file name
+// (editions/3f/!E!home!E!user!E!file.pdf.yml), so no directory contains tens of thousands of files.
+// The edit file name still encodes the PDF file path: Edition.getFileFromEdit() does not need any other data.
+// The edit files of the former flat layout (editions/!E!home!E!user!E!file.pdf.yml) are moved into their sub-directory
+// in background at startup (migrateInBackground()), or when they are accessed before (getEditFile()).
+public class EditionFiles {
+    
+    private static boolean migrationStarted;
+    private static volatile boolean migrated;
+    private static volatile boolean shardDirsCreated;
+    
+    public static File getEditionsDir(){
+        return new File(Main.dataFolder + "editions");
+    }
+    
+    public static File getShardDir(String editFileName){
+        return new File(getEditionsDir(), String.format("%02x", editFileName.hashCode() & 0xFF));
+    }
+    
+    // Use Edition.getEditFile(File) to get the edit file of a PDF file.
+    static File getEditFile(String editFileName){
+        if(!shardDirsCreated) createShardDirs(); // The edit files can be written without creating their parent directory
+        File legacyFile = new File(getEditionsDir(), editFileName);
+        if(!migrated) migrate(legacyFile);
+        return getShardFile(legacyFile);
+    }
+    
+    private static synchronized void createShardDirs(){
+        for(int i = 0; i <= 0xFF; i++) new File(getEditionsDir(), String.format("%02x", i)).mkdirs();
+        shardDirsCreated = true;
+    }
+    
+    // All the edit files, of both layouts while the migration is not done. Edit files being written are ignored.
+    public static List<File> getEditFiles(){
+        List<File> editFiles = new ArrayList<>();
+        File[] files = getEditionsDir().listFiles();
+        if(files == null) return editFiles;
+        
+        for(File file : files){
+            if(file.isDirectory()){
+                File[] shardFiles = file.listFiles();
+                if(shardFiles == null) continue;
+                for(File editFile : shardFiles){
+                    if(!EditionData.isTempFile(editFile)) editFiles.add(editFile);
+                }
+            }else if(!migrated && !EditionData.isTempFile(file)) editFiles.add(file);
+        }
+        return editFiles;
+    }
+    
+    // Changes when an edit file is created, deleted or renamed (not when it is modified).
+    public static long getDirectoriesState(){
+        File dir = getEditionsDir();
+        long state = dir.lastModified();
+        File[] files = dir.listFiles(File::isDirectory);
+        if(files != null){
+            for(File shardDir : files) state = state * 31 + shardDir.lastModified();
+        }
+        return state;
+    }
+    
+    public static synchronized void migrateInBackground(){
+        if(migrationStarted) return;
+        migrationStarted = true;
+        
+        new Thread(() -> {
+            File[] files = getEditionsDir().listFiles(File::isFile);
+            if(files == null){
+                migrated = true;
+                return;
+            }
+            
+            int moved = 0;
+            boolean done = true;
+            for(File legacyFile : files){
+                if(EditionData.isTempFile(legacyFile)) continue;
+                if(migrate(legacyFile)) moved++;
+                else if(getShardFile(legacyFile).exists()){
+                    Log.w("Edit file " + legacyFile.getName() + " exists in both layouts, the flat layout one is ignored.");
+                }else if(legacyFile.exists()) done = false; // Failed to move, will be tried again at the next access
+            }
+            migrated = done;
+            if(moved != 0) Log.i("Moved " + moved + " edit files into the editions sub-directories");
+        }, "Edit files migration").start();
+    }
+    
+    private static File getShardFile(File legacyFile){
+        return new File(getShardDir(legacyFile.getName()), legacyFile.getName());
+    }
+    
+    // Moves an edit file of the flat layout into its sub-directory.
+    // Returns false if there was nothing to move, if the edit file already exists in its sub-directory, or if it failed.
+    private static synchronized boolean migrate(File legacyFile){
+        File editFile = getShardFile(legacyFile);
+        if(!legacyFile.exists() || editFile.exists()) return false;
+        try{
+            editFile.getParentFile().mkdirs();
+            Files.move(legacyFile.toPath(), editFile.toPath());
+            return true;
+        }catch(IOException e){
+            Log.e(e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document.editions;
+
+import fr.clementgre.pdf4teachers.document.editions.data.EditionData;
+import fr.clementgre.pdf4teachers.document.editions.data.EditionSummary;
+import fr.clementgre.pdf4teachers.interfaces.windows.log.Log;
+import javafx.application.Platform;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Summaries of the edit files (see EditionSummary), keyed by edit file path. An entry is valid as long as
+// the last modified date and the length of the edit file did not change: the edit files modified outside
+// of PDF4Teachers are read again. Updated by EditionSaver after each write, and saved with the user data (see EditionIndexData).
+// The entries that are missing or outdated are computed lazily, when they are needed or in background (updateInBackground()).
+public class EditionIndex {
+    
+    public record Entry(long lastModified, long length, EditionSummary summary) {
+        public boolean isValid(File editFile){
+            return lastModified == editFile.lastModified() && length == editFile.length();
+        }
+    }
+    
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Edition Index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Edit file path -> Entry
+    private static final HashMap<String, Entry> entries = new HashMap<>();
+    
+    // Returns null if the edit file does not exist. Reads the edit file if its entry is missing or outdated.
+    public static EditionSummary get(File editFile) throws IOException{
+        if(!editFile.exists()){
+            remove(editFile);
+            return null;
+        }
+        
+        Entry entry = getEntry(editFile);
+        if(entry != null && entry.isValid(editFile)) return entry.summary();
+        
+        long lastModified = editFile.lastModified();
+        long length = editFile.length();
+        EditionSummary summary = EditionSummary.read(editFile);
+        put(editFile, new Entry(lastModified, length, summary));
+        return summary;
+    }
+    
+    // Called when the edit file has been written from this data (or deleted because the data was empty).
+    public static void update(File editFile, EditionData data){
+        if(!editFile.exists()) remove(editFile);
+        else put(editFile, new Entry(editFile.lastModified(), editFile.length(), EditionSummary.of(data)));
+    }
+    
+    // Computes the missing and outdated entries of these edit files, then calls onUpdated on the FX thread if some entries were computed.
+    public static void updateInBackground(List<File> editFiles, Runnable onUpdated){
+        List<File> toUpdate = new ArrayList<>(editFiles);
+        executor.execute(() -> {
+            boolean updated = false;
+            for(File editFile : toUpdate){
+                if(!editFile.exists()) continue;
+                Entry entry = getEntry(editFile);
+                if(entry != null && entry.isValid(editFile)) continue;
+                try{
+                    get(editFile);
+                    updated = true;
+                }catch(Exception e){
+                    Log.e(e);
+                }
+            }
+            if(updated) Platform.runLater(onUpdated);
+        });
+    }
+    
+    private static synchronized Entry getEntry(File editFile){
+        return entries.get(editFile.getAbsolutePath());
+    }
+    private static synchronized void put(File editFile, Entry entry){
+        entries.put(editFile.getAbsolutePath(), entry);
+    }
+    public static synchronized void remove(File editFile){
+        entries.remove(editFile.getAbsolutePath());
+    }
+    
+    // Loaded entries do not replace the entries computed during the loading.
+    public static synchronized void load(Map<String, Entry> loadedEntries){
+        HashMap<String, Entry> newEntries = new HashMap<>(loadedEntries);
+        newEntries.putAll(entries);
+        entries.clear();
+        entries.putAll(newEntries);
+    }
+    
+    // Entries of the edit files that still exist.
+    public static synchronized HashMap<String, Entry> getAll(){
+        entries.keySet().removeIf(path -> !new File(path).exists());
+        return new HashMap<>(entries);
+    }
+}
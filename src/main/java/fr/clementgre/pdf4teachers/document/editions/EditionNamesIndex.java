@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document.editions;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Edit files of the editions directory, grouped by name of their PDF file (see Edition.getEditFilesWithSameName()).
+// The index is valid as long as the last modified dates of the editions directories are the ones it was built or updated with
+// (see EditionFiles.getDirectoriesState()): the edit files written by EditionSaver update the index, any other change of the
+// directories (import, copy, rename...) makes them be scanned again at the next lookup. Saved with the user data (see EditionNamesData).
+public class EditionNamesIndex {
+    
+    // PDF file name -> Names of the edit files. null until the index is built or loaded.
+    private static HashMap<String, HashSet<String>> editFiles;
+    private static long directoriesState;
+    
+    // The edit files of the PDF files named name.
+    public static synchronized List<File> getEditFiles(String name){
+        if(!isUpToDate()) build();
+        
+        List<File> files = new ArrayList<>();
+        for(String editFileName : editFiles.getOrDefault(name, new HashSet<>())){
+            File editFile = EditionFiles.getEditFile(editFileName);
+            if(editFile.exists()) files.add(editFile);
+        }
+        return files;
+    }
+    
+    public static synchronized boolean isUpToDate(){
+        return editFiles != null && EditionFiles.getDirectoriesState() == directoriesState;
+    }
+    
+    // Called after an edit file has been written or deleted. wasUpToDate must be got with isUpToDate() before the change:
+    // if the index was outdated, it is not marked as up to date and will be built again.
+    public static synchronized void onEditFileChanged(File editFile, boolean wasUpToDate){
+        if(editFiles == null) return;
+        
+        String name = Edition.getFileFromEdit(editFile).getName();
+        if(editFile.exists()){
+            editFiles.computeIfAbsent(name, k -> new HashSet<>()).add(editFile.getName());
+        }else{
+            HashSet<String> names = editFiles.get(name);
+            if(names != null){
+                names.remove(editFile.getName());
+                if(names.isEmpty()) editFiles.remove(name);
+            }
+        }
+        if(wasUpToDate) directoriesState = EditionFiles.getDirectoriesState();
+    }
+    
+    private static void build(){
+        long state = EditionFiles.getDirectoriesState(); // Before listing: a change during the listing outdates the index.
+        
+        editFiles = new HashMap<>();
+        for(File editFile : EditionFiles.getEditFiles()){
+            editFiles.computeIfAbsent(Edition.getFileFromEdit(editFile).getName(), k -> new HashSet<>()).add(editFile.getName());
+        }
+        directoriesState = state;
+    }
+    
+    // The loaded index is ignored if the index has already been built.
+    public static synchronized void load(Map<String, ? extends Set<String>> loadedEditFiles, long loadedDirectoriesState){
+        if(editFiles != null) return;
+        
+        editFiles = new HashMap<>();
+        loadedEditFiles.forEach((name, names) -> editFiles.put(name, new HashSet<>(names)));
+        directoriesState = loadedDirectoriesState;
+    }
+    
+    // Returns null if the index is not built.
+    public static synchronized HashMap<String, HashSet<String>> getAll(){
+        if(editFiles == null) return null;
+        HashMap<String, HashSet<String>> all = new HashMap<>();
+        editFiles.forEach((name, names) -> all.put(name, new HashSet<>(names)));
+        return all;
+    }
+    
+    public static synchronized long getDirectoriesState(){
+        return directoriesState;
+    }
+}
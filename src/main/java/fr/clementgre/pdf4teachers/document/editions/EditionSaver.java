@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document.editions;
+
+import fr.clementgre.pdf4teachers.Main;
+import fr.clementgre.pdf4teachers.document.editions.data.EditionData;
+import fr.clementgre.pdf4teachers.document.editions.data.EditionFragments;
+import fr.clementgre.pdf4teachers.interfaces.windows.MainWindow;
+import fr.clementgre.pdf4teachers.interfaces.windows.log.Log;
+import javafx.application.Platform;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Writes the edit files in background. The elements are read on the FX thread (Edition.getData()),
+// then the snapshot is serialized and written by the "Edition Saver" thread (see EditionData.save()).
+// Writes are done in the order they are requested. When a write of an edit file is still waiting,
+// a newer snapshot of this file replaces it: a burst of saves is written only once.
+// Also runs the periodical autosave (settings.regularSave).
+public class EditionSaver {
+    
+    // The periodical autosave waits until the edition was not modified for this delay, to not save in the middle of an action.
+    private static final long AUTO_SAVE_QUIET_DELAY = 2000;
+    
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Edition Saver");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private record PendingWrite(EditionData data, EditionFragments fragments) {}
+    
+    // Edit file -> Last snapshot, not written yet
+    private static final HashMap<File, PendingWrite> pendingWrites = new HashMap<>();
+    
+    private static ScheduledFuture<?> autoSave;
+    private static long lastChange;
+    
+    public static void save(File editFile, EditionData data){
+        save(editFile, data, new EditionFragments());
+    }
+    // The fragments of an edition must always be used with the same edit file.
+    public static void save(File editFile, EditionData data, EditionFragments fragments){
+        synchronized(EditionSaver.class){
+            // A write of this file is already waiting: it will write this snapshot instead.
+            if(pendingWrites.put(editFile, new PendingWrite(data, fragments)) != null) return;
+        }
+        executor.execute(() -> write(editFile));
+    }
+    
+    private static void write(File editFile){
+        PendingWrite write;
+        synchronized(EditionSaver.class){
+            write = pendingWrites.remove(editFile);
+        }
+        if(write == null) return;
+        
+        try{
+            boolean namesIndexUpToDate = EditionNamesIndex.isUpToDate();
+            write.data().save(editFile, write.fragments()); // Deletes the edit file if the edition is empty
+            EditionIndex.update(editFile, write.data());
+            EditionNamesIndex.onEditFileChanged(editFile, namesIndexUpToDate);
+        }catch(IOException e){
+            Log.eNotified(e, "Can't save edition");
+        }
+        Platform.runLater(() -> MainWindow.filesTab.files.refreshFile(Edition.getFileFromEdit(editFile)));
+    }
+    
+    // Runs a file operation on an edit file after the writes that are waiting.
+    public static void execute(Runnable runnable){
+        executor.execute(runnable);
+    }
+    
+    // Blocks until all the writes requested before are done.
+    // Must be called before reading, moving or deleting an edit file that may have been saved recently.
+    public static void flush(){
+        try{
+            executor.submit(() -> {}).get();
+        }catch(InterruptedException | ExecutionException e){
+            Log.e(e);
+        }
+    }
+    
+    // Called at each change of the edition: the changes made during the regularSave delay are saved at once.
+    public static synchronized void onEditionChanged(){
+        lastChange = System.currentTimeMillis();
+        if(autoSave != null || Main.settings.regularSave.getValue() == -1) return;
+        
+        autoSave = executor.schedule(EditionSaver::autoSave, Main.settings.regularSave.getValue(), TimeUnit.MINUTES);
+    }
+    public static synchronized void cancelAutoSave(){
+        if(autoSave != null){
+            autoSave.cancel(false);
+            autoSave = null;
+        }
+    }
+    
+    private static void autoSave(){
+        synchronized(EditionSaver.class){
+            long sinceLastChange = System.currentTimeMillis() - lastChange;
+            if(sinceLastChange < AUTO_SAVE_QUIET_DELAY){
+                autoSave = executor.schedule(EditionSaver::autoSave, AUTO_SAVE_QUIET_DELAY - sinceLastChange, TimeUnit.MILLISECONDS);
+                return;
+            }
+            autoSave = null;
+        }
+        Platform.runLater(() -> {
+            if(MainWindow.mainScreen.hasDocument(false) && !Edition.isSave()) MainWindow.mainScreen.document.edition.save(true);
+        });
+    }
+}
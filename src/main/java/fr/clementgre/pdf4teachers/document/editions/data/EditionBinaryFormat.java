@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document.editions.data;
+
+import fr.clementgre.pdf4teachers.Main;
+import fr.clementgre.pdf4teachers.document.editions.elements.GraphicElement.RepeatMode;
+import fr.clementgre.pdf4teachers.document.editions.elements.GraphicElement.ResizeMode;
+import fr.clementgre.pdf4teachers.panel.sidebar.skills.data.EditionSkill;
+import javafx.scene.paint.Color;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Compact binary format of the edit files, faster to read and write than YAML for large editions (long vector paths).
+// Layout: MAGIC | format version | Main.VERSION_ID of the writer | last scroll value (NaN if none, see DocumentViewStates)
+//         | then the sections vectors, images, texts, grades and skills, each one prefixed by its length in bytes.
+// Strings are prefixed by their length in bytes (UTF-8), colors are stored as RGBA (same precision as the YAML hex colors).
+// Readers ignore the sections they do not know, so sections can be appended without changing the format version.
+public class EditionBinaryFormat {
+    
+    private static final byte[] MAGIC = {'P', '4', 'T', 'E'};
+    private static final int FORMAT_VERSION = 1;
+    
+    public static boolean isBinaryFile(File file){
+        try(InputStream input = new FileInputStream(file)){
+            return Arrays.equals(input.readNBytes(MAGIC.length), MAGIC);
+        }catch(IOException e){
+            return false;
+        }
+    }
+    
+    // READ
+    
+    public static EditionData read(File file) throws IOException{
+        try(DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))){
+            if(!Arrays.equals(input.readNBytes(MAGIC.length), MAGIC)) throw new IOException("Not a binary edit file: " + file.getName());
+            int formatVersion = input.readInt();
+            if(formatVersion > FORMAT_VERSION) throw new IOException("Unsupported binary edit file format version " + formatVersion + " (" + file.getName() + ")");
+            
+            int versionID = input.readInt();
+            double lastScrollValue = input.readDouble();
+            
+            DataInputStream section = readSection(input);
+            ArrayList<VectorElementData> vectors = new ArrayList<>();
+            for(int i = section.readInt(); i > 0; i--) vectors.add(readVector(section));
+            
+            section = readSection(input);
+            ArrayList<ImageElementData> images = new ArrayList<>();
+            for(int i = section.readInt(); i > 0; i--) images.add(readImage(section));
+            
+            section = readSection(input);
+            ArrayList<TextElementData> texts = new ArrayList<>();
+            for(int i = section.readInt(); i > 0; i--) texts.add(readText(section));
+            
+            section = readSection(input);
+            ArrayList<GradeElementData> grades = new ArrayList<>();
+            for(int i = section.readInt(); i > 0; i--) grades.add(readGrade(section));
+            
+            section = readSection(input);
+            SkillTableElementData skillTable = section.readBoolean() ? readSkillTable(section) : SkillTableElementData.empty();
+            
+            return new EditionData(versionID, Double.isNaN(lastScrollValue) ? null : lastScrollValue, vectors, images, texts, grades, skillTable);
+        }
+    }
+    
+    private static DataInputStream readSection(DataInputStream input) throws IOException{
+        int length = input.readInt();
+        return new DataInputStream(new ByteArrayInputStream(input.readNBytes(length)));
+    }
+    
+    private static VectorElementData readVector(DataInputStream in) throws IOException{
+        return new VectorElementData(in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+                RepeatMode.valueOf(readString(in)), ResizeMode.valueOf(readString(in)),
+                in.readBoolean(), readColor(in), readColor(in), in.readInt(), readString(in), in.readBoolean(), in.readBoolean(), in.readInt());
+    }
+    private static ImageElementData readImage(DataInputStream in) throws IOException{
+        return new ImageElementData(in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+                RepeatMode.valueOf(readString(in)), ResizeMode.valueOf(readString(in)), readString(in));
+    }
+    private static TextElementData readText(DataInputStream in) throws IOException{
+        return new TextElementData(in.readInt(), in.readInt(), in.readInt(), readColor(in), readString(in), in.readDouble(),
+                in.readBoolean(), in.readBoolean(), readString(in), in.readDouble());
+    }
+    private static GradeElementData readGrade(DataInputStream in) throws IOException{
+        return new GradeElementData(in.readInt(), in.readInt(), in.readInt(), in.readInt(), readString(in),
+                in.readDouble(), in.readDouble(), in.readDouble(), readString(in), in.readBoolean());
+    }
+    private static SkillTableElementData readSkillTable(DataInputStream in) throws IOException{
+        int page = in.readInt(), x = in.readInt(), y = in.readInt(), width = in.readInt(), height = in.readInt();
+        double scale = in.readDouble();
+        long assessmentId = in.readLong(), studentId = in.readLong();
+        ArrayList<EditionSkill> skills = new ArrayList<>();
+        for(int i = in.readInt(); i > 0; i--) skills.add(new EditionSkill(in.readLong(), in.readLong()));
+        return new SkillTableElementData(page, x, y, width, height, scale, assessmentId, studentId, skills);
+    }
+    
+    private static String readString(DataInputStream in) throws IOException{
+        return new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8);
+    }
+    private static Color readColor(DataInputStream in) throws IOException{
+        int rgba = in.readInt();
+        return Color.rgb((rgba >>> 24) & 0xFF, (rgba >>> 16) & 0xFF, (rgba >>> 8) & 0xFF, (rgba & 0xFF) / 255d);
+    }
+    
+    // WRITE
+    
+    public static void write(EditionData edition, OutputStream outputStream) throws IOException{
+        write(edition, outputStream, new EditionFragments());
+    }
+    // Elements are written as fragments (see EditionFragments): the elements that were not modified since the last save are not serialized again.
+    public static void write(EditionData edition, OutputStream outputStream, EditionFragments fragments) throws IOException{
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream));
+        output.write(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        output.writeInt(Main.VERSION_ID);
+        output.writeDouble(edition.lastScrollValue() == null ? Double.NaN : edition.lastScrollValue());
+        
+        writeSection(output, out -> writeElements(out, edition.vectors(), fragments, EditionBinaryFormat::writeVector));
+        writeSection(output, out -> writeElements(out, edition.images(), fragments, EditionBinaryFormat::writeImage));
+        writeSection(output, out -> writeElements(out, edition.texts(), fragments, EditionBinaryFormat::writeText));
+        writeSection(output, out -> writeElements(out, edition.grades(), fragments, EditionBinaryFormat::writeGrade));
+        writeSection(output, out -> {
+            out.writeBoolean(edition.hasSkillTable());
+            if(edition.hasSkillTable()) writeElement(out, edition.skillTable(), fragments, EditionBinaryFormat::writeSkillTable);
+        });
+        output.flush();
+    }
+    
+    private interface SectionWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+    private static void writeSection(DataOutputStream output, SectionWriter writer) throws IOException{
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream section = new DataOutputStream(bytes);
+        writer.write(section);
+        section.flush();
+        output.writeInt(bytes.size());
+        bytes.writeTo(output);
+    }
+    
+    private interface ElementWriter<T extends ElementData> {
+        void write(DataOutputStream out, T element) throws IOException;
+    }
+    private static <T extends ElementData> void writeElements(DataOutputStream out, List<T> elements, EditionFragments fragments, ElementWriter<T> writer) throws IOException{
+        out.writeInt(elements.size());
+        for(T element : elements) writeElement(out, element, fragments, writer);
+    }
+    private static <T extends ElementData> void writeElement(DataOutputStream out, T element, EditionFragments fragments, ElementWriter<T> writer) throws IOException{
+        out.write(fragments.getBinary(element, () -> {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            writer.write(new DataOutputStream(bytes), element);
+            return bytes.toByteArray();
+        }));
+    }
+    
+    private static void writeVector(DataOutputStream out, VectorElementData vector) throws IOException{
+        out.writeInt(vector.page());
+        out.writeInt(vector.x());
+        out.writeInt(vector.y());
+        out.writeInt(vector.width());
+        out.writeInt(vector.height());
+        writeString(out, vector.repeatMode().name());
+        writeString(out, vector.resizeMode().name());
+        out.writeBoolean(vector.doFill());
+        writeColor(out, vector.fill());
+        writeColor(out, vector.stroke());
+        out.writeInt(vector.strokeWidth());
+        writeString(out, vector.path());
+        out.writeBoolean(vector.invertX());
+        out.writeBoolean(vector.invertY());
+        out.writeInt(vector.arrowLength());
+    }
+    private static void writeImage(DataOutputStream out, ImageElementData image) throws IOException{
+        out.writeInt(image.page());
+        out.writeInt(image.x());
+        out.writeInt(image.y());
+        out.writeInt(image.width());
+        out.writeInt(image.height());
+        writeString(out, image.repeatMode().name());
+        writeString(out, image.resizeMode().name());
+        writeString(out, image.imageId());
+    }
+    private static void writeText(DataOutputStream out, TextElementData text) throws IOException{
+        out.writeInt(text.page());
+        out.writeInt(text.x());
+        out.writeInt(text.y());
+        writeColor(out, text.color());
+        writeString(out, text.font());
+        out.writeDouble(text.size());
+        out.writeBoolean(text.bold());
+        out.writeBoolean(text.italic());
+        writeString(out, text.text());
+        out.writeDouble(text.maxWidth());
+    }
+    private static void writeGrade(DataOutputStream out, GradeElementData grade) throws IOException{
+        out.writeInt(grade.page());
+        out.writeInt(grade.x());
+        out.writeInt(grade.y());
+        out.writeInt(grade.index());
+        writeString(out, grade.parentPath());
+        out.writeDouble(grade.value());
+        out.writeDouble(grade.total());
+        out.writeDouble(grade.outOfTotal());
+        writeString(out, grade.name());
+        out.writeBoolean(grade.alwaysVisible());
+    }
+    private static void writeSkillTable(DataOutputStream out, SkillTableElementData skillTable) throws IOException{
+        out.writeInt(skillTable.page());
+        out.writeInt(skillTable.x());
+        out.writeInt(skillTable.y());
+        out.writeInt(skillTable.width());
+        out.writeInt(skillTable.height());
+        out.writeDouble(skillTable.scale());
+        out.writeLong(skillTable.assessmentId());
+        out.writeLong(skillTable.studentId());
+        // Useless to save editionSkills that have no matching Notation (id == 0)
+        List<EditionSkill> skills = skillTable.editionSkills().stream().filter(s -> s.getNotationId() != 0).toList();
+        out.writeInt(skills.size());
+        for(EditionSkill skill : skills){
+            out.writeLong(skill.getSkillId());
+            out.writeLong(skill.getNotationId());
+        }
+    }
+    
+    private static void writeString(DataOutputStream out, String string) throws IOException{
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    private static void writeColor(DataOutputStream out, Color color) throws IOException{
+        out.writeInt((int) Math.round(color.getRed() * 255) << 24 | (int) Math.round(color.getGreen() * 255) << 16
+                | (int) Math.round(color.getBlue() * 255) << 8 | (int) Math.round(color.getOpacity() * 255));
+    }
+}
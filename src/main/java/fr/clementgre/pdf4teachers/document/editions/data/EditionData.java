@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document.editions.data;
+
+import fr.clementgre.pdf4teachers.Main;
+import fr.clementgre.pdf4teachers.datasaving.Config;
+import fr.clementgre.pdf4teachers.document.editions.elements.Element;
+import fr.clementgre.pdf4teachers.utils.MathUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Immutable content of an edit file. Loading, processing and saving an EditionData does not create any JavaFX node,
+// it can be done from any thread. The elements are created only when they need to be displayed or measured (toElements()).
+// LOAD ORDER (see Edition.load()): Vectors < Images < Texts < Skills < Grades
+@SuppressWarnings("unchecked")
+public record EditionData(int versionID, Double lastScrollValue, List<VectorElementData> vectors, List<ImageElementData> images,
+                          List<TextElementData> texts, List<GradeElementData> grades, SkillTableElementData skillTable) {
+    
+    private static final String TEMP_EXTENSION = ".tmp";
+    
+    public EditionData{
+        vectors = List.copyOf(vectors);
+        images = List.copyOf(images);
+        texts = List.copyOf(texts);
+        grades = List.copyOf(grades);
+        if(skillTable == null) skillTable = SkillTableElementData.empty();
+    }
+    
+    public static EditionData empty(){
+        return new EditionData(Main.VERSION_ID, null, List.of(), List.of(), List.of(), List.of(), SkillTableElementData.empty());
+    }
+    
+    // Returns an empty edition if the edit file does not exist. Both YAML and binary edit files are supported.
+    public static EditionData load(File editFile) throws IOException{
+        if(!editFile.exists()) return empty();
+        if(EditionBinaryFormat.isBinaryFile(editFile)) return EditionBinaryFormat.read(editFile);
+        
+        Config config = new Config(editFile);
+        config.load();
+        return fromYAML(config.base);
+    }
+    
+    public static EditionData fromYAML(HashMap<String, Object> base){
+        int versionID = (int) Config.getLong(base, "versionID");
+        boolean upscaleGrid = versionID == 0; // Between 1.2.1 and 1.3.0, the grid size was multiplied by 100
+        
+        ArrayList<VectorElementData> vectors = new ArrayList<>();
+        ArrayList<ImageElementData> images = new ArrayList<>();
+        ArrayList<TextElementData> texts = new ArrayList<>();
+        ArrayList<GradeElementData> grades = new ArrayList<>();
+        
+        loadItemsInPage(Config.getSection(base, "vectors"), (page, data) -> vectors.add(VectorElementData.getFromYAML(data, page)));
+        loadItemsInPage(Config.getSection(base, "images"), (page, data) -> images.add(ImageElementData.getFromYAML(data, page)));
+        loadItemsInPage(Config.getSection(base, "texts"), (page, data) -> texts.add(TextElementData.getFromYAML(data, page, upscaleGrid)));
+        
+        for(Object data : Config.getList(base, "grades")){
+            if(data instanceof Map) grades.add(GradeElementData.getFromYAML((HashMap<String, Object>) data, upscaleGrid));
+        }
+        
+        // There is only one SkillTableElement (the grid) that contains all the skills
+        SkillTableElementData skillTable = SkillTableElementData.getFromYAML(Config.getSection(base, "skills"));
+        
+        return new EditionData(versionID, Config.getDoubleNull(base, "lastScrollValue"), vectors, images, texts, grades, skillTable);
+    }
+    
+    private interface PageItemReader {
+        void read(int page, HashMap<String, Object> data);
+    }
+    // For each element of a page map ("pageN" -> list of elements data), call the reader.
+    private static void loadItemsInPage(HashMap<String, Object> section, PageItemReader reader){
+        for(Map.Entry<String, Object> pageData : section.entrySet()){
+            Integer page = MathUtils.parseIntOrNull(pageData.getKey().replaceFirst("page", ""));
+            if(page == null || !(pageData.getValue() instanceof List)) break;
+            
+            for(Object elementData : ((List<Object>) pageData.getValue())){
+                if(elementData instanceof HashMap) reader.read(page, (HashMap<String, Object>) elementData);
+            }
+        }
+    }
+    
+    public LinkedHashMap<String, Object> toYAML(){
+        return toYAML(new EditionFragments());
+    }
+    LinkedHashMap<String, Object> toYAML(EditionFragments fragments){
+        LinkedHashMap<String, Object> base = new LinkedHashMap<>();
+        if(lastScrollValue != null) base.put("lastScrollValue", lastScrollValue);
+        base.put("texts", toPagesYAML(texts, fragments));
+        base.put("grades", grades.stream().map(fragments::getYAML).collect(Collectors.toCollection(ArrayList::new)));
+        base.put("images", toPagesYAML(images, fragments));
+        base.put("vectors", toPagesYAML(vectors, fragments));
+        base.put("skills", hasSkillTable() ? fragments.getYAML(skillTable) : new LinkedHashMap<>());
+        base.put("versionID", Main.VERSION_ID);
+        return base;
+    }
+    private static LinkedHashMap<String, ArrayList<Object>> toPagesYAML(List<? extends ElementData> elements, EditionFragments fragments){
+        LinkedHashMap<String, ArrayList<Object>> pages = new LinkedHashMap<>();
+        for(ElementData element : elements){
+            pages.computeIfAbsent("page" + element.page(), k -> new ArrayList<>()).add(fragments.getYAML(element));
+        }
+        return pages;
+    }
+    
+    // Deletes the edit file if the edition is empty (see countElements()).
+    // The file is written in the binary format if it is enabled in the settings, in YAML otherwise.
+    // The edition is written into a temporary file that then replaces the edit file:
+    // the edit file can't be left truncated if the app is stopped while writing.
+    public void save(File editFile) throws IOException{
+        save(editFile, new EditionFragments());
+    }
+    // The elements that were already written by the last save with these fragments are not serialized again.
+    public void save(File editFile, EditionFragments fragments) throws IOException{
+        if(isEmpty()){
+            editFile.delete();
+            return;
+        }
+        File tempFile = getTempFile(editFile);
+        editFile.getParentFile().mkdirs();
+        try{
+            fragments.startSave();
+            if(Main.settings.binaryEditFiles.getValue()){
+                try(FileOutputStream output = new FileOutputStream(tempFile)){
+                    EditionBinaryFormat.write(this, output, fragments);
+                }
+            }else saveYAML(tempFile, fragments);
+            
+            try{
+                Files.move(tempFile.toPath(), editFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }catch(AtomicMoveNotSupportedException e){
+                Files.move(tempFile.toPath(), editFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            fragments.endSave();
+        }finally{
+            tempFile.delete();
+        }
+    }
+    
+    public static File getTempFile(File editFile){
+        return new File(editFile.getParentFile(), editFile.getName() + TEMP_EXTENSION);
+    }
+    public static boolean isTempFile(File file){
+        return file.getName().endsWith(TEMP_EXTENSION);
+    }
+    
+    // YAML is always used for the editions that are exported (interchange format).
+    public void saveYAML(File file) throws IOException{
+        saveYAML(file, new EditionFragments());
+    }
+    private void saveYAML(File file, EditionFragments fragments) throws IOException{
+        file.createNewFile();
+        Config config = new Config(file);
+        config.base.putAll(toYAML(fragments));
+        config.save();
+    }
+    
+    // true if the edit file is not in the format selected in the settings.
+    public static boolean needsMigration(File editFile){
+        return editFile.exists() && EditionBinaryFormat.isBinaryFile(editFile) != Main.settings.binaryEditFiles.getValue();
+    }
+    
+    // Default grades (the empty root) and a grid without assessment are not counted.
+    public boolean isEmpty(){
+        return texts.isEmpty() && images.isEmpty() && vectors.isEmpty() && !hasSkillTable()
+                && grades.stream().allMatch(GradeElementData::isDefaultGrade);
+    }
+    
+    // Same count as the elements counter of the files list: grades are counted only if they are filled.
+    public int countElements(){
+        int count = texts.size() + images.size() + vectors.size();
+        count += (int) grades.stream().filter(grade -> grade.getStats()[0] != -1).count();
+        if(hasSkillTable()) count++;
+        return count;
+    }
+    
+    public boolean hasSkillTable(){
+        return skillTable.hasAssessment();
+    }
+    
+    public GradeElementData getRootGrade(){
+        return grades.stream().filter(GradeElementData::isRoot).findFirst().orElse(null);
+    }
+    
+    public Stream<ElementData> stream(){
+        return Stream.of(vectors.stream(), images.stream(), texts.stream(), grades.stream(), Stream.of(skillTable))
+                .flatMap(Function.identity());
+    }
+    
+    public EditionData withGrades(List<GradeElementData> grades){
+        return new EditionData(versionID, lastScrollValue, vectors, images, texts, grades, skillTable);
+    }
+    
+    // Creates the JavaFX elements (not added to any page).
+    public Element[] toElements(){
+        return stream().map(element -> element.toElement(false)).toArray(Element[]::new);
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document.editions.data;
+
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+
+// Serialized elements of the last save of an edition, reused by the next save for the elements that were not modified.
+// The pages and the grades that were not modified since the last save give the same ElementData instances (see Edition.getData()),
+// their fragments are found by identity. Only the fragments used by the last save are kept.
+// Not thread safe: it must be used only by the thread that writes the edit file.
+public class EditionFragments {
+    
+    interface FragmentWriter {
+        byte[] write() throws IOException;
+    }
+    
+    private IdentityHashMap<ElementData, Object> fragments = new IdentityHashMap<>();
+    private IdentityHashMap<ElementData, Object> usedFragments = new IdentityHashMap<>();
+    
+    void startSave(){
+        usedFragments = new IdentityHashMap<>();
+    }
+    void endSave(){
+        fragments = usedFragments;
+        usedFragments = new IdentityHashMap<>();
+    }
+    
+    @SuppressWarnings("unchecked")
+    LinkedHashMap<Object, Object> getYAML(ElementData element){
+        Object fragment = fragments.get(element);
+        if(!(fragment instanceof LinkedHashMap)) fragment = element.toYAML();
+        usedFragments.put(element, fragment);
+        return (LinkedHashMap<Object, Object>) fragment;
+    }
+    
+    byte[] getBinary(ElementData element, FragmentWriter writer) throws IOException{
+        Object fragment = fragments.get(element);
+        if(!(fragment instanceof byte[])) fragment = writer.write();
+        usedFragments.put(element, fragment);
+        return (byte[]) fragment;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document.editions.data;
+
+import fr.clementgre.pdf4teachers.datasaving.Config;
+import fr.clementgre.pdf4teachers.panel.sidebar.skills.data.EditionSkill;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Counts of an edit file, stored in the EditionIndex: the files list and the files sorting do not have to read the edit files.
+// The skills are kept by id: the assessment is resolved when the stats are displayed (see Edition.getEditionStats()).
+@SuppressWarnings("unchecked")
+public record EditionSummary(int elements, int texts, int graphics, int grades, int filledGrades, double totalGradeValue,
+                             double totalGradeOutOf, long assessmentId, List<EditionSkill> editionSkills) {
+    
+    public EditionSummary{
+        editionSkills = editionSkills.stream().map(skill -> new EditionSkill(skill.getSkillId(), skill.getNotationId())).toList();
+    }
+    
+    public static EditionSummary of(EditionData data){
+        double[] totalGrade = {-1, 0}; // Root grade value and total
+        int filledGrades = 0; // All entered grade
+        
+        for(GradeElementData grade : data.grades()){
+            double[] stats = grade.getStats();
+            if(stats.length == 2) totalGrade = stats; // get the root grade value and the root grade total
+            if(stats[0] != -1) filledGrades++;
+        }
+        
+        return new EditionSummary(data.countElements(), data.texts().size(), data.images().size() + data.vectors().size(),
+                data.grades().size(), filledGrades, totalGrade[0], totalGrade[1],
+                data.skillTable().assessmentId(), data.skillTable().editionSkills());
+    }
+    
+    // Reads only what is needed from the edit file (see EditionSummaryReader). The binary edit files are compact enough to be fully loaded.
+    public static EditionSummary read(File editFile) throws IOException{
+        if(!editFile.exists()) return of(EditionData.empty());
+        if(EditionBinaryFormat.isBinaryFile(editFile)) return of(EditionData.load(editFile));
+        return EditionSummaryReader.read(editFile);
+    }
+    
+    public static EditionSummary getFromYAML(HashMap<String, Object> data){
+        return new EditionSummary(
+                (int) Config.getLong(data, "elements"),
+                (int) Config.getLong(data, "texts"),
+                (int) Config.getLong(data, "graphics"),
+                (int) Config.getLong(data, "grades"),
+                (int) Config.getLong(data, "filledGrades"),
+                Config.getDouble(data, "totalGradeValue"),
+                Config.getDouble(data, "totalGradeOutOf"),
+                Config.getLong(data, "assessmentId"),
+                Config.getList(data, "skills")
+                        .stream()
+                        .filter(skillData -> skillData instanceof Map)
+                        .map(skillData -> EditionSkill.getFromYAML((HashMap<String, Object>) skillData))
+                        .toList());
+    }
+    
+    public LinkedHashMap<Object, Object> toYAML(){
+        LinkedHashMap<Object, Object> data = new LinkedHashMap<>();
+        data.put("elements", elements);
+        data.put("texts", texts);
+        data.put("graphics", graphics);
+        data.put("grades", grades);
+        data.put("filledGrades", filledGrades);
+        data.put("totalGradeValue", totalGradeValue);
+        data.put("totalGradeOutOf", totalGradeOutOf);
+        data.put("assessmentId", assessmentId);
+        data.put("skills", editionSkills.stream().filter(s -> s.getNotationId() != 0).map(EditionSkill::toYAML).collect(Collectors.toCollection(ArrayList::new)));
+        return data;
+    }
+}
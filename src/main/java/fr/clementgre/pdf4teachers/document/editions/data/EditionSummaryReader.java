@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document.editions.data;
+
+import fr.clementgre.pdf4teachers.utils.MathUtils;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.ScalarEvent;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+// Reads the summary of a YAML edit file from the SnakeYAML events, without building the whole document:
+// the texts, images and vectors are only counted (their content, like the vectors paths, is skipped),
+// only the grades and the skills grid are built. Gives the same summary as EditionSummary.of(EditionData.load(editFile)).
+class EditionSummaryReader {
+    
+    // Aliases are not written by PDF4Teachers: the files that contain some are fully loaded instead.
+    private static class AliasFoundException extends RuntimeException {}
+    
+    private final Iterator<Event> events;
+    
+    private int texts;
+    private int graphics;
+    private final List<GradeElementData> grades = new ArrayList<>();
+    private SkillTableElementData skillTable = SkillTableElementData.empty();
+    
+    private EditionSummaryReader(Iterator<Event> events){
+        this.events = events;
+    }
+    
+    static EditionSummary read(File editFile) throws IOException{
+        try(Reader reader = new InputStreamReader(new FileInputStream(editFile), StandardCharsets.UTF_8)){
+            return new EditionSummaryReader(new Yaml().parse(reader).iterator()).read();
+        }catch(AliasFoundException e){
+            return EditionSummary.of(EditionData.load(editFile));
+        }
+    }
+    
+    private EditionSummary read(){
+        Event event = next();
+        while(event.is(Event.ID.StreamStart) || event.is(Event.ID.DocumentStart)) event = next();
+        
+        if(event.is(Event.ID.MappingStart)){
+            for(Event key = next(); !key.is(Event.ID.MappingEnd); key = next()){
+                String name = String.valueOf(readValue(key));
+                Event value = next();
+                switch(name){
+                    case "texts" -> texts = countPagesElements(value);
+                    case "images", "vectors" -> graphics += countPagesElements(value);
+                    case "grades" -> readGrades(value);
+                    case "skills" -> {
+                        if(readValue(value) instanceof LinkedHashMap<?, ?> map) skillTable = SkillTableElementData.getFromYAML(cast(map));
+                    }
+                    default -> skip(value);
+                }
+            }
+        }
+        
+        int filledGrades = 0;
+        double[] totalGrade = {-1, 0};
+        for(GradeElementData grade : grades){
+            double[] stats = grade.getStats();
+            if(stats.length == 2) totalGrade = stats;
+            if(stats[0] != -1) filledGrades++;
+        }
+        int elements = texts + graphics + filledGrades + (skillTable.hasAssessment() ? 1 : 0);
+        
+        return new EditionSummary(elements, texts, graphics, grades.size(), filledGrades, totalGrade[0], totalGrade[1],
+                skillTable.assessmentId(), skillTable.editionSkills());
+    }
+    
+    // Page map ("pageN" -> list of elements data): counts the elements, like EditionData.loadItemsInPage().
+    private int countPagesElements(Event section){
+        if(!section.is(Event.ID.MappingStart)){
+            skip(section);
+            return 0;
+        }
+        int count = 0;
+        boolean stopped = false;
+        for(Event key = next(); !key.is(Event.ID.MappingEnd); key = next()){
+            Integer page = MathUtils.parseIntOrNull(String.valueOf(readValue(key)).replaceFirst("page", ""));
+            Event value = next();
+            if(stopped || page == null || !value.is(Event.ID.SequenceStart)){
+                stopped = true;
+                skip(value);
+                continue;
+            }
+            for(Event element = next(); !element.is(Event.ID.SequenceEnd); element = next()){
+                if(element.is(Event.ID.Alias)) throw new AliasFoundException();
+                if(element.is(Event.ID.MappingStart)) count++;
+                skip(element);
+            }
+        }
+        return count;
+    }
+    
+    private void readGrades(Event section){
+        if(!section.is(Event.ID.SequenceStart)){
+            skip(section);
+            return;
+        }
+        for(Event element = next(); !element.is(Event.ID.SequenceEnd); element = next()){
+            if(readValue(element) instanceof LinkedHashMap<?, ?> map) grades.add(GradeElementData.getFromYAML(cast(map), false));
+        }
+    }
+    
+    // Builds the node that starts with this event, with the scalars as strings (Config reads all the values from their string).
+    private Object readValue(Event event){
+        switch(event.getEventId()){
+            case Scalar -> {
+                ScalarEvent scalar = (ScalarEvent) event;
+                if(scalar.isPlain() && isNull(scalar.getValue())) return null;
+                return scalar.getValue();
+            }
+            case MappingStart -> {
+                LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+                for(Event key = next(); !key.is(Event.ID.MappingEnd); key = next()){
+                    map.put(String.valueOf(readValue(key)), readValue(next()));
+                }
+                return map;
+            }
+            case SequenceStart -> {
+                ArrayList<Object> list = new ArrayList<>();
+                for(Event element = next(); !element.is(Event.ID.SequenceEnd); element = next()){
+                    list.add(readValue(element));
+                }
+                return list;
+            }
+            case Alias -> throw new AliasFoundException();
+            default -> {
+                return null;
+            }
+        }
+    }
+    
+    // Skips the node that starts with this event
+    private void skip(Event event){
+        if(!event.is(Event.ID.MappingStart) && !event.is(Event.ID.SequenceStart)) return;
+        int depth = 1;
+        while(depth > 0){
+            Event next = next();
+            if(next.is(Event.ID.MappingStart) || next.is(Event.ID.SequenceStart)) depth++;
+            else if(next.is(Event.ID.MappingEnd) || next.is(Event.ID.SequenceEnd)) depth--;
+        }
+    }
+    
+    private Event next(){
+        return events.next();
+    }
+    
+    private static boolean isNull(String value){
+        return value.isEmpty() || value.equals("~") || value.equalsIgnoreCase("null");
+    }
+    @SuppressWarnings("unchecked")
+    private static HashMap<String, Object> cast(LinkedHashMap<?, ?> map){
+        return (HashMap<String, Object>) map;
+    }
+}
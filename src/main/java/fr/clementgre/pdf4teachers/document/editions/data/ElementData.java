@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document.editions.data;
+
+import fr.clementgre.pdf4teachers.document.editions.elements.Element;
+
+import java.util.LinkedHashMap;
+
+// Immutable data of an element of an edit file. Can be read, processed and written from any thread,
+// without creating the JavaFX Element (a Region) that displays it.
+public sealed interface ElementData permits TextElementData, ImageElementData, VectorElementData, GradeElementData, SkillTableElementData {
+    
+    int page();
+    
+    LinkedHashMap<Object, Object> toYAML();
+    
+    // Creates the JavaFX element, only needed to display or to measure the element.
+    Element toElement(boolean hasPage);
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document.editions.data;
+
+import fr.clementgre.pdf4teachers.datasaving.Config;
+import fr.clementgre.pdf4teachers.document.editions.elements.GradeElement;
+import fr.clementgre.pdf4teachers.interfaces.windows.language.TR;
+import fr.clementgre.pdf4teachers.panel.sidebar.grades.GradeRating;
+import fr.clementgre.pdf4teachers.panel.sidebar.grades.GradeTab;
+import fr.clementgre.pdf4teachers.panel.sidebar.grades.GradeTreeView;
+import fr.clementgre.pdf4teachers.utils.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public record GradeElementData(int page, int x, int y, int index, String parentPath, double value, double total, double outOfTotal, String name, boolean alwaysVisible) implements ElementData {
+    
+    public static GradeElementData getFromYAML(HashMap<String, Object> data, boolean upscaleGrid){
+        int x = (int) Config.getLong(data, "x");
+        int y = (int) Config.getLong(data, "y");
+        
+        if(upscaleGrid){ // Between 1.2.1 and 1.3.0, the grid size was multiplied by 100
+            x *= 100;
+            y *= 100;
+        }
+        
+        return new GradeElementData(
+                (int) Config.getLong(data, "page"), x, y,
+                (int) Config.getLong(data, "index"),
+                Config.getString(data, "parentPath"),
+                Config.getDouble(data, "value"),
+                Config.getDouble(data, "total"),
+                Config.getDouble(data, "outOfTotal"),
+                Config.getString(data, "name"),
+                Config.getBoolean(data, "alwaysVisible"));
+    }
+    
+    @Override
+    public LinkedHashMap<Object, Object> toYAML(){
+        LinkedHashMap<Object, Object> data = new LinkedHashMap<>();
+        data.put("x", x);
+        data.put("y", y);
+        data.put("page", page);
+        data.put("index", index);
+        data.put("parentPath", parentPath);
+        data.put("value", value);
+        data.put("total", total);
+        data.put("outOfTotal", outOfTotal);
+        data.put("name", name);
+        data.put("alwaysVisible", alwaysVisible);
+        return data;
+    }
+    
+    @Override
+    public GradeElement toElement(boolean hasPage){
+        return new GradeElement(x, y, page, hasPage, value, total, outOfTotal, index, parentPath, name, alwaysVisible);
+    }
+    
+    public GradeElementData withValue(double value, boolean alwaysVisible){
+        return new GradeElementData(page, x, y, index, parentPath, value, total, outOfTotal, name, alwaysVisible);
+    }
+    
+    // 2args (Root) : [0] => Value [1] => Total  |  1args (Other) : [0] => Value
+    // The value and the total are scaled to outOfTotal if it is defined.
+    public double[] getStats(){
+        double value = this.value;
+        double total = this.total;
+        if(outOfTotal > 0){
+            if(total > 0){
+                if(value >= 0) value = value / total * outOfTotal;
+            }else value = 0;
+            
+            total = outOfTotal;
+        }
+        
+        if(isRoot()) return new double[]{value, total};
+        else return new double[]{value};
+    }
+    
+    public boolean isRoot(){
+        return getParentPathArray().length == 0;
+    }
+    public boolean isDefaultGrade(){
+        return value == -1 && total == 0 && name.equals(TR.tr("gradeTab.gradeDefaultName.total"));
+    }
+    public boolean isShouldVisibleOnExport(){
+        int tier = GradeTreeView.getElementTier(parentPath);
+        return value != -1
+                && !GradeTab.getTierHide(tier)
+                && !(GradeTab.getTierHideWhenAllPoints(tier) && value == total);
+    }
+    
+    public String getPath(){
+        return parentPath + "\\" + name;
+    }
+    public String[] getParentPathArray(){
+        return StringUtils.cleanArray(parentPath.split(Pattern.quote("\\")));
+    }
+    
+    public GradeRating toGradeRating(){
+        return new GradeRating(value, total, outOfTotal, name, index, parentPath, alwaysVisible, x, y, page);
+    }
+    
+    // SORTING (same order as GradeElement.sortGrades)
+    
+    public static ArrayList<GradeElementData> sortGrades(List<GradeElementData> grades){
+        ArrayList<GradeElementData> gradesOutput = new ArrayList<>(grades);
+        gradesOutput.sort((grade1, grade2) -> grade1.compareTo(grade2, grades));
+        return gradesOutput;
+    }
+    
+    public int compareTo(GradeElementData grade, List<GradeElementData> grades){
+        
+        // grade1 is the parent of grade2 ?
+        if(getParentPathArray().length < grade.getParentPathArray().length){
+            if(grade.parentPath().contains(getPath())) return -1;
+        }
+        // grade2 is the parent of grade1 ?
+        if(grade.getParentPathArray().length < getParentPathArray().length){
+            if(parentPath.contains(grade.getPath())) return 1;
+        }
+        
+        GradeElementData grade1Parent = this;
+        GradeElementData grade2Parent = grade;
+        
+        // while grades are at the same level
+        while(!grade1Parent.parentPath().equals(grade2Parent.parentPath())){
+            if(grade1Parent.getParentPathArray().length < grade2Parent.getParentPathArray().length){ // grade1Parent is at a higher level
+                for(GradeElementData parent : grades){
+                    if(parent.getPath().equals(grade2Parent.parentPath())) grade2Parent = parent; // get the parent of grade2Parent
+                }
+            }else{
+                for(GradeElementData parent : grades){
+                    if(parent.getPath().equals(grade1Parent.parentPath())) grade1Parent = parent; // get the parent of grade1Parent
+                }
+            }
+        }
+        return grade1Parent.index() - grade2Parent.index();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document.editions.data;
+
+import fr.clementgre.pdf4teachers.datasaving.Config;
+import fr.clementgre.pdf4teachers.document.editions.elements.GraphicElement.RepeatMode;
+import fr.clementgre.pdf4teachers.document.editions.elements.GraphicElement.ResizeMode;
+import fr.clementgre.pdf4teachers.document.editions.elements.ImageElement;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+public record ImageElementData(int page, int x, int y, int width, int height, RepeatMode repeatMode, ResizeMode resizeMode, String imageId) implements ElementData {
+    
+    public static ImageElementData getFromYAML(HashMap<String, Object> data, int page){
+        return new ImageElementData(page,
+                (int) Config.getLong(data, "x"),
+                (int) Config.getLong(data, "y"),
+                (int) Config.getLong(data, "width"),
+                (int) Config.getLong(data, "height"),
+                RepeatMode.valueOf(Config.getString(data, "repeatMode")),
+                ResizeMode.valueOf(Config.getString(data, "resizeMode")),
+                Config.getString(data, "imageId"));
+    }
+    
+    @Override
+    public LinkedHashMap<Object, Object> toYAML(){
+        LinkedHashMap<Object, Object> data = new LinkedHashMap<>();
+        data.put("x", x);
+        data.put("y", y);
+        data.put("width", width);
+        data.put("height", height);
+        data.put("repeatMode", repeatMode.name());
+        data.put("resizeMode", resizeMode.name());
+        data.put("imageId", imageId);
+        return data;
+    }
+    
+    @Override
+    public ImageElement toElement(boolean hasPage){
+        return new ImageElement(x, y, page, hasPage, width, height, repeatMode, resizeMode, imageId);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document.editions.data;
+
+import fr.clementgre.pdf4teachers.datasaving.Config;
+import fr.clementgre.pdf4teachers.document.editions.elements.GraphicElement.RepeatMode;
+import fr.clementgre.pdf4teachers.document.editions.elements.GraphicElement.ResizeMode;
+import fr.clementgre.pdf4teachers.document.editions.elements.SkillTableElement;
+import fr.clementgre.pdf4teachers.panel.sidebar.skills.data.EditionSkill;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// There is only one SkillTableElement (the grid) per edition, that contains all the skills. assessmentId is 0 if there is no grid.
+@SuppressWarnings("unchecked")
+public record SkillTableElementData(int page, int x, int y, int width, int height, double scale, long assessmentId, long studentId, List<EditionSkill> editionSkills) implements ElementData {
+    
+    public SkillTableElementData{
+        editionSkills = copySkills(editionSkills);
+    }
+    // EditionSkill is mutable: the data and the elements have their own copies.
+    private static List<EditionSkill> copySkills(List<EditionSkill> editionSkills){
+        return editionSkills.stream().map(skill -> new EditionSkill(skill.getSkillId(), skill.getNotationId())).toList();
+    }
+    
+    public static SkillTableElementData getFromYAML(HashMap<String, Object> data){
+        return new SkillTableElementData(
+                (int) Config.getLong(data, "page"),
+                (int) Config.getLong(data, "x"),
+                (int) Config.getLong(data, "y"),
+                (int) Config.getLong(data, "width"),
+                (int) Config.getLong(data, "height"),
+                (float) Config.getDouble(data, "scale"),
+                Config.getLong(data, "assessmentId"),
+                Config.getLong(data, "studentId"),
+                Config.getList(data, "list")
+                        .stream()
+                        .filter(skillData -> skillData instanceof Map)
+                        .map(skillData -> EditionSkill.getFromYAML((HashMap<String, Object>) skillData))
+                        .toList());
+    }
+    
+    // Grid without assessment (the SkillTableElement always exists in a loaded edition).
+    public static SkillTableElementData empty(){
+        return getFromYAML(new HashMap<>());
+    }
+    
+    public boolean hasAssessment(){
+        return assessmentId != 0;
+    }
+    
+    @Override
+    public LinkedHashMap<Object, Object> toYAML(){
+        LinkedHashMap<Object, Object> data = new LinkedHashMap<>();
+        data.put("x", x);
+        data.put("y", y);
+        data.put("width", width);
+        data.put("height", height);
+        data.put("repeatMode", RepeatMode.STRETCH.name());
+        data.put("resizeMode", ResizeMode.CORNERS.name());
+        data.put("scale", scale);
+        data.put("page", page);
+        data.put("assessmentId", assessmentId);
+        data.put("studentId", studentId);
+        // Useless to save editionSkills that have no matching Notation (id == 0)
+        data.put("list", editionSkills.stream().filter(s -> s.getNotationId() != 0).map(EditionSkill::toYAML).collect(Collectors.toCollection(ArrayList::new)));
+        return data;
+    }
+    
+    @Override
+    public SkillTableElement toElement(boolean hasPage){
+        return new SkillTableElement(x, y, page, hasPage, width, height, scale, assessmentId, studentId, new ArrayList<>(copySkills(editionSkills)));
+    }
+}
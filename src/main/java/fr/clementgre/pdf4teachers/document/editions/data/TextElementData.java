@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document.editions.data;
+
+import fr.clementgre.pdf4teachers.datasaving.Config;
+import fr.clementgre.pdf4teachers.document.editions.elements.TextElement;
+import fr.clementgre.pdf4teachers.utils.fonts.FontUtils;
+import javafx.scene.paint.Color;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+public record TextElementData(int page, int x, int y, Color color, String font, double size, boolean bold, boolean italic, String text, double maxWidth) implements ElementData {
+    
+    public static TextElementData getFromYAML(HashMap<String, Object> data, int page, boolean upscaleGrid){
+        int x = (int) Config.getLong(data, "x");
+        int y = (int) Config.getLong(data, "y");
+        
+        if(upscaleGrid){ // Between 1.2.1 and 1.3.0, the grid size was multiplied by 100
+            x *= 100;
+            y *= 100;
+        }
+        
+        return new TextElementData(page, x, y,
+                Color.valueOf(Config.getString(data, "color")),
+                Config.getString(data, "font"),
+                Config.getDouble(data, "size"),
+                Config.getBoolean(data, "bold"),
+                Config.getBoolean(data, "italic"),
+                Config.getString(data, "text"),
+                Config.getDouble(data, "maxWidth"));
+    }
+    
+    @Override
+    public LinkedHashMap<Object, Object> toYAML(){
+        LinkedHashMap<Object, Object> data = new LinkedHashMap<>();
+        data.put("x", x);
+        data.put("y", y);
+        data.put("color", color.toString());
+        data.put("font", font);
+        data.put("size", size);
+        data.put("bold", bold);
+        data.put("italic", italic);
+        data.put("text", text);
+        data.put("maxWidth", maxWidth);
+        return data;
+    }
+    
+    @Override
+    public TextElement toElement(boolean hasPage){
+        return new TextElement(x, y, page, hasPage, text, color, FontUtils.getFont(font, italic, bold, (int) size), maxWidth);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document.editions.data;
+
+import fr.clementgre.pdf4teachers.datasaving.Config;
+import fr.clementgre.pdf4teachers.document.editions.elements.GraphicElement.RepeatMode;
+import fr.clementgre.pdf4teachers.document.editions.elements.GraphicElement.ResizeMode;
+import fr.clementgre.pdf4teachers.document.editions.elements.VectorElement;
+import fr.clementgre.pdf4teachers.interfaces.windows.log.Log;
+import javafx.scene.paint.Color;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+public record VectorElementData(int page, int x, int y, int width, int height, RepeatMode repeatMode, ResizeMode resizeMode,
+                                boolean doFill, Color fill, Color stroke, int strokeWidth, String path, boolean invertX, boolean invertY, int arrowLength) implements ElementData {
+    
+    public static VectorElementData getFromYAML(HashMap<String, Object> data, int page){
+        Color fill = Color.DARKGRAY;
+        Color stroke = Color.BLACK;
+        try{
+            fill = Color.valueOf(Config.getString(data, "fill"));
+            stroke = Color.valueOf(Config.getString(data, "stroke"));
+        }catch(IllegalArgumentException e){
+            Log.e("Unable to parse VectorElement color: " + e.getMessage());
+        }
+        
+        return new VectorElementData(page,
+                (int) Config.getLong(data, "x"),
+                (int) Config.getLong(data, "y"),
+                (int) Config.getLong(data, "width"),
+                (int) Config.getLong(data, "height"),
+                RepeatMode.valueOf(Config.getString(data, "repeatMode")),
+                ResizeMode.valueOf(Config.getString(data, "resizeMode")),
+                Config.getBoolean(data, "doFill"),
+                fill, stroke,
+                (int) Config.getLong(data, "strokeWidth"),
+                Config.getString(data, "path"),
+                Config.getBoolean(data, "invertX"),
+                Config.getBoolean(data, "invertY"),
+                (int) Config.getLong(data, "arrowLength"));
+    }
+    
+    @Override
+    public LinkedHashMap<Object, Object> toYAML(){
+        LinkedHashMap<Object, Object> data = new LinkedHashMap<>();
+        data.put("x", x);
+        data.put("y", y);
+        data.put("width", width);
+        data.put("height", height);
+        data.put("repeatMode", repeatMode.name());
+        data.put("resizeMode", resizeMode.name());
+        data.put("doFill", doFill);
+        data.put("fill", fill.toString());
+        data.put("stroke", stroke.toString());
+        data.put("strokeWidth", strokeWidth);
+        data.put("path", path);
+        data.put("invertX", invertX);
+        data.put("invertY", invertY);
+        data.put("arrowLength", arrowLength);
+        return data;
+    }
+    
+    @Override
+    public VectorElement toElement(boolean hasPage){
+        return new VectorElement(x, y, page, hasPage, width, height, repeatMode, resizeMode, doFill, fill, stroke, strokeWidth, path, invertX, invertY, arrowLength);
+    }
+}
@@ -7,6 +7,7 @@ package fr.clementgre.pdf4teachers.document.editions.elements;
 
 import fr.clementgre.pdf4teachers.Main;
 import fr.clementgre.pdf4teachers.document.editions.Edition;
+import fr.clementgre.pdf4teachers.document.editions.data.ElementData;
 import fr.clementgre.pdf4teachers.document.editions.undoEngine.MoveUndoAction;
 import fr.clementgre.pdf4teachers.document.editions.undoEngine.UType;
 import fr.clementgre.pdf4teachers.document.render.display.PageRenderer;
@@ -25,7 +26,6 @@ import javafx.scene.input.MouseButton;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 
-import java.util.LinkedHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public abstract class Element extends Region {
@@ -132,7 +132,7 @@ public abstract class Element extends Region {
             setOnMouseReleased(e -> {
                 setCursor(PlatformUtils.CURSOR_MOVE);
                 if(wasInEditPagesModeWhenMousePressed || e.getButton() != MouseButton.PRIMARY) return;
-                Edition.setUnsave("ElementMouseRelease");
+                Edition.setUnsave("ElementMouseRelease", this);
                 
                 double itemX = getLayoutX() + e.getX() - shiftX;
                 double itemY = getLayoutY() + e.getY() - shiftY;
@@ -312,14 +312,8 @@ public abstract class Element extends Region {
     
     // READER AND WRITERS
     
-    public abstract LinkedHashMap<Object, Object> getYAMLData();
-    
-    protected LinkedHashMap<Object, Object> getYAMLPartialData(){
-        LinkedHashMap<Object, Object> data = new LinkedHashMap<>();
-        data.put("x", getRealX());
-        data.put("y", getRealY());
-        return data;
-    }
+    // Immutable snapshot of the element, that can be serialized from any thread.
+    public abstract ElementData toData();
     
     // GETTERS AND SETTERS
     
@@ -90,7 +90,7 @@ public class GrabLine extends Region {
         line.setOnMouseReleased(e -> {
             if(wasInEditPagesModeWhenMousePressed) return;
             e.consume();
-            Edition.setUnsave("TextElementResize");
+            Edition.setUnsave("TextElementResize", element);
             
             double width = localToParent(line.localToParent(e.getX(), 0)).getX() - shiftX;
             width = MathUtils.clamp(width, 10, PageRenderer.PAGE_WIDTH);
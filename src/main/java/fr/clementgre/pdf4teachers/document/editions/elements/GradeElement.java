@@ -7,8 +7,8 @@ package fr.clementgre.pdf4teachers.document.editions.elements;
 
 import fr.clementgre.pdf4teachers.components.ScratchText;
 import fr.clementgre.pdf4teachers.components.menus.NodeMenuItem;
-import fr.clementgre.pdf4teachers.datasaving.Config;
 import fr.clementgre.pdf4teachers.document.editions.Edition;
+import fr.clementgre.pdf4teachers.document.editions.data.GradeElementData;
 import fr.clementgre.pdf4teachers.document.editions.undoEngine.ObservableChangedUndoAction;
 import fr.clementgre.pdf4teachers.document.editions.undoEngine.UType;
 import fr.clementgre.pdf4teachers.document.editions.undoEngine.UndoEngine;
@@ -31,8 +31,6 @@ import javafx.scene.text.Font;
 import javafx.scene.text.TextBoundsType;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -102,7 +100,7 @@ public class GradeElement extends Element {
         });
         nameProperty().addListener((observable, oldValue, newValue) -> {
             updateText();
-            Edition.setUnsave("GradeNameChanged");
+            Edition.setUnsave("GradeNameChanged", this);
             
             // Check if name is null
             if(newValue.isBlank()){
@@ -142,7 +140,7 @@ public class GradeElement extends Element {
         });
         // make sum when value or total change
         valueProperty().addListener((observable, oldValue, newValue) -> {
-            Edition.setUnsave("GradeValueChanged");
+            Edition.setUnsave("GradeValueChanged", this);
             if(!isShouldVisible()){
                 setVisible(false);
                 updateText();
@@ -183,7 +181,7 @@ public class GradeElement extends Element {
             }
         });
         totalProperty().addListener((observable, oldValue, newValue) -> {
-            Edition.setUnsave("GradeTotalChanged");
+            Edition.setUnsave("GradeTotalChanged", this);
             updateText();
             
             if((GradeTreeView.getTotal()).getCore().equals(this)) return; // This is Root
@@ -205,7 +203,7 @@ public class GradeElement extends Element {
         });
         
         outOfTotalProperty().addListener((observable, oldValue, newValue) -> {
-            Edition.setUnsave("GradeOutOfTotalChanged");
+            Edition.setUnsave("GradeOutOfTotalChanged", this);
             updateText();
             
             // When this is called due to an undo action, need to update GradeTreeItem
@@ -223,6 +221,7 @@ public class GradeElement extends Element {
         });
         
         alwaysVisible.addListener((observable, oldValue, newValue) -> {
+            Edition.setUnsave("GradeAlwaysVisibleChanged", this);
             updateFont();
             setupMenu();
             getGradeTreeItem().setChildrenAlwaysVisible(isAlwaysVisible(), false);
@@ -349,62 +348,12 @@ public class GradeElement extends Element {
     // READER AND WRITERS
     
     @Override
-    public LinkedHashMap<Object, Object> getYAMLData(){
-        LinkedHashMap<Object, Object> data = super.getYAMLPartialData();
-        data.put("page", getPageNumber());
-        data.put("index", index);
-        data.put("parentPath", parentPath);
-        data.put("value", value.getValue());
-        data.put("total", total.getValue());
-        data.put("outOfTotal", outOfTotal.getValue());
-        data.put("name", name.getValue());
-        data.put("alwaysVisible", alwaysVisible.get());
-        
-        return data;
-    }
-    
-    public static double[] getYAMLDataStats(HashMap<String, Object> data){
-        // 2args (Root) : [0] => Value [1] => Total  |  1args (Other) : [0] => Value
-        String parentPath = Config.getString(data, "parentPath");
-        double value = Config.getDouble(data, "value");
-        double total = Config.getDouble(data, "total");
-        double outOfTotal = Config.getDouble(data, "outOfTotal");
-        if(outOfTotal > 0){
-            if(total > 0){
-                if(value >= 0) value = value / total * outOfTotal;
-            }else value = 0;
-            
-            total = outOfTotal;
-        }
-        
-        if(StringUtils.cleanArray(parentPath.split(Pattern.quote("\\"))).length == 0)
-            return new double[]{value, total};
-        else return new double[]{value};
-    }
-    
-    public static GradeElement readYAMLDataAndGive(HashMap<String, Object> data, boolean hasPage, boolean upscaleGrid){
-        
-        int x = (int) Config.getLong(data, "x");
-        int y = (int) Config.getLong(data, "y");
-        int page = (int) Config.getLong(data, "page");
-        int index = (int) Config.getLong(data, "index");
-        String parentPath = Config.getString(data, "parentPath");
-        double value = Config.getDouble(data, "value");
-        double total = Config.getDouble(data, "total");
-        double outOfTotal = Config.getDouble(data, "outOfTotal");
-        boolean alwaysVisible = Config.getBoolean(data, "alwaysVisible");
-        String name = Config.getString(data, "name");
-        
-        if(upscaleGrid){ // Between 1.2.1 and 1.3.0, the grid size was multiplied by 100
-            x *= 100;
-            y *= 100;
-        }
-        
-        return new GradeElement(x, y, page, hasPage, value, total, outOfTotal, index, parentPath, name, alwaysVisible);
+    public GradeElementData toData(){
+        return new GradeElementData(getPageNumber(), getRealX(), getRealY(), index, parentPath, value.get(), total.get(), outOfTotal.get(), name.get(), alwaysVisible.get());
     }
     
-    public static void readYAMLDataAndCreate(HashMap<String, Object> data, boolean upscaleGrid){
-        GradeElement element = readYAMLDataAndGive(data, true, upscaleGrid);
+    public static void createFromData(GradeElementData data){
+        GradeElement element = data.toElement(true);
         
         if(MainWindow.mainScreen.document.getPagesNumber() > element.getPageNumber())
             MainWindow.mainScreen.document.getPage(element.getPageNumber()).addElement(element, false, UType.NO_UNDO);
@@ -555,7 +504,7 @@ public class GradeElement extends Element {
     
     public void setIndex(int index){
         this.index = index;
-        Edition.setUnsave("GradeIndexChanged");
+        Edition.setUnsave("GradeIndexChanged", this);
     }
     
     public String getParentPath(){
@@ -572,7 +521,7 @@ public class GradeElement extends Element {
     
     public void setParentPath(String parentPath){
         this.parentPath = parentPath;
-        Edition.setUnsave("GradeParentPathChanged");
+        Edition.setUnsave("GradeParentPathChanged", this);
     }
     
     public boolean isAlwaysVisible(){
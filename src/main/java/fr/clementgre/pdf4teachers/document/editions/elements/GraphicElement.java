@@ -28,7 +28,6 @@ import javafx.scene.input.MouseButton;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 
-import java.util.LinkedHashMap;
 
 public abstract class GraphicElement extends Element {
     
@@ -183,7 +182,7 @@ public abstract class GraphicElement extends Element {
         setOnMouseReleased(e -> {
             if(e.getButton() == MouseButton.MIDDLE) setCursor(getDragCursorType(e.getX(), e.getY()));
             if(wasInEditPagesModeWhenMousePressed || e.getButton() != MouseButton.PRIMARY) return;
-            Edition.setUnsave("GraphicElementMouseRelease");
+            Edition.setUnsave("GraphicElementMouseRelease", this);
             
             if(dragType == PlatformUtils.CURSOR_MOVE){
                 double itemX = getLayoutX() + e.getX() - shiftX;
@@ -658,18 +657,6 @@ public abstract class GraphicElement extends Element {
         checkLocation(getLayoutX()/* + (oldWidth - newWidth)/2d*/, getLayoutY()/* + (oldHeight - newHeight)/2d*/, newWidth, newHeight, false);
     }
     
-    // READERS AND WRITERS
-    
-    protected LinkedHashMap<Object, Object> getYAMLPartialData(){
-        LinkedHashMap<Object, Object> data = super.getYAMLPartialData();
-        data.put("width", getRealWidth());
-        data.put("height", getRealHeight());
-        data.put("repeatMode", getRepeatMode().name());
-        data.put("resizeMode", getResizeMode().name());
-        
-        return data;
-    }
-    
     // GETTER AND SETTER
     
     public boolean doKeepRatio(boolean shift, boolean angle){
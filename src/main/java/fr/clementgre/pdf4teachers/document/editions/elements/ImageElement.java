@@ -6,8 +6,8 @@
 package fr.clementgre.pdf4teachers.document.editions.elements;
 
 import fr.clementgre.pdf4teachers.components.menus.NodeRadioMenuItem;
-import fr.clementgre.pdf4teachers.datasaving.Config;
 import fr.clementgre.pdf4teachers.document.editions.Edition;
+import fr.clementgre.pdf4teachers.document.editions.data.ImageElementData;
 import fr.clementgre.pdf4teachers.document.editions.undoEngine.ObservableChangedUndoAction;
 import fr.clementgre.pdf4teachers.document.editions.undoEngine.UType;
 import fr.clementgre.pdf4teachers.interfaces.windows.MainWindow;
@@ -28,8 +28,6 @@ import javafx.scene.image.Image;
 import javafx.scene.layout.*;
 
 import java.io.File;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.Objects;
 
 public class ImageElement extends GraphicElement {
@@ -93,7 +91,7 @@ public class ImageElement extends GraphicElement {
         super.setupBindings();
         imageId.addListener((observable, oldValue, newValue) -> {
             updateImage(false);
-            Edition.setUnsave("ImageElement changed");
+            Edition.setUnsave("ImageElement changed", this);
 
             // New word added OR this is the first registration of this action/property.
             if(StringUtils.countSpaces(oldValue) != StringUtils.countSpaces(newValue)
@@ -104,11 +102,11 @@ public class ImageElement extends GraphicElement {
         });
         repeatMode.addListener((observable, oldValue, newValue) -> {
             updateBackground();
-            Edition.setUnsave("ImageElement changed");
+            Edition.setUnsave("ImageElement changed", this);
             MainWindow.mainScreen.registerNewAction(new ObservableChangedUndoAction<>(this, repeatMode, oldValue, UType.UNDO));
         });
         resizeMode.addListener((observable, oldValue, newValue) -> {
-            Edition.setUnsave("ImageElement changed");
+            Edition.setUnsave("ImageElement changed", this);
             MainWindow.mainScreen.registerNewAction(new ObservableChangedUndoAction<>(this, resizeMode, oldValue, UType.UNDO));
         });
 
@@ -168,33 +166,16 @@ public class ImageElement extends GraphicElement {
     // READER AND WRITERS
 
     @Override
-    public LinkedHashMap<Object, Object> getYAMLData(){
-        LinkedHashMap<Object, Object> data = super.getYAMLPartialData();
-        data.put("imageId", getImageId());
-
-        return data;
+    public ImageElementData toData(){
+        return new ImageElementData(getPageNumber(), getRealX(), getRealY(), getRealWidth(), getRealHeight(), getRepeatMode(), getResizeMode(), getImageId());
     }
 
-    public static void readYAMLDataAndCreate(HashMap<String, Object> data, int page){
-        ImageElement element = readYAMLDataAndGive(data, true, page);
+    public static void createFromData(ImageElementData data){
+        ImageElement element = data.toElement(true);
         if(MainWindow.mainScreen.document.getPagesNumber() > element.getPageNumber())
             MainWindow.mainScreen.document.getPage(element.getPageNumber()).addElement(element, false, UType.NO_UNDO);
     }
 
-    public static ImageElement readYAMLDataAndGive(HashMap<String, Object> data, boolean hasPage, int page){
-
-        int x = (int) Config.getLong(data, "x");
-        int y = (int) Config.getLong(data, "y");
-        int width = (int) Config.getLong(data, "width");
-        int height = (int) Config.getLong(data, "height");
-        String imageId = Config.getString(data, "imageId");
-
-        RepeatMode repeatMode = RepeatMode.valueOf(Config.getString(data, "repeatMode"));
-        ResizeMode resizeMode = ResizeMode.valueOf(Config.getString(data, "resizeMode"));
-
-        return new ImageElement(x, y, page, hasPage, width, height, repeatMode, resizeMode, imageId);
-    }
-
     // SPECIFIC METHODS
 
 
@@ -5,7 +5,7 @@
 
 package fr.clementgre.pdf4teachers.document.editions.elements;
 
-import fr.clementgre.pdf4teachers.datasaving.Config;
+import fr.clementgre.pdf4teachers.document.editions.data.SkillTableElementData;
 import fr.clementgre.pdf4teachers.document.editions.undoEngine.UType;
 import fr.clementgre.pdf4teachers.interfaces.windows.MainWindow;
 import fr.clementgre.pdf4teachers.interfaces.windows.language.TR;
@@ -30,7 +30,6 @@ import javafx.scene.transform.Scale;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
 public class SkillTableElement extends GraphicElement{
     
@@ -214,19 +213,12 @@ public class SkillTableElement extends GraphicElement{
         assessment.setPrefScale((float) getScale());
     }
     @Override
-    public LinkedHashMap<Object, Object> getYAMLData(){
-        LinkedHashMap<Object, Object> data = super.getYAMLPartialData();
-        data.put("scale", scale);
-        data.put("page", pageNumber);
-        data.put("assessmentId", assessmentId.get());
-        data.put("studentId", studentId.get());
-        // Useless to save editionSkills that have no matching Notation (id == 0)
-        data.put("list", editionSkills.get().stream().filter(s -> s.getNotationId() != 0).map(EditionSkill::toYAML).toList());
-        return data;
+    public SkillTableElementData toData(){
+        return new SkillTableElementData(getPageNumber(), getRealX(), getRealY(), getRealWidth(), getRealHeight(), scale, getAssessmentId(), getStudentId(), getEditionSkills());
     }
     
-    public static void readYAMLDataAndCreate(HashMap<String, Object> data){
-        SkillTableElement element = readYAMLDataAndGive(data, true);
+    public static void createFromData(SkillTableElementData data){
+        SkillTableElement element = data.toElement(true);
         if(MainWindow.mainScreen.document.getPagesNumber() > element.getPageNumber()){
             // There can't be more than one SkillTableElement element in the document
             MainWindow.mainScreen.document.getPages().forEach(page -> {
@@ -244,28 +236,6 @@ public class SkillTableElement extends GraphicElement{
         }
     }
     
-    public static SkillTableElement readYAMLDataAndGive(HashMap<String, Object> data, boolean hasPage){
-        int x = (int) Config.getLong(data, "x");
-        int y = (int) Config.getLong(data, "y");
-        int width = (int) Config.getLong(data, "width");
-        int height = (int) Config.getLong(data, "height");
-        
-        float scale = (float) Config.getDouble(data, "scale");
-        
-        int page = (int)  Config.getLong(data, "page");
-        
-        long assessmentId = Config.getLong(data, "assessmentId");
-        long studentId = Config.getLong(data, "studentId");
-    
-        ArrayList<EditionSkill> skills = Config.getList(data, "list")
-                .stream()
-                .filter(skillData -> skillData instanceof Map)
-                .map(skillData -> EditionSkill.getFromYAML((HashMap<String, Object>) skillData))
-                .collect(Collectors.toCollection(ArrayList::new));
-
-        return new SkillTableElement(x, y, page, hasPage, width, height, scale, assessmentId, studentId, skills);
-    }
-    
     // Copy editionSkill from student
     private final CallsBuffer<Student> callsBuffer = new CallsBufferMemory<>(300, oldStudent -> {
         if(getStudentId() != 0 && (oldStudent == null || getStudentId() != oldStudent.id())){
@@ -8,8 +8,8 @@ package fr.clementgre.pdf4teachers.document.editions.elements;
 import fr.clementgre.pdf4teachers.Main;
 import fr.clementgre.pdf4teachers.components.ScratchText;
 import fr.clementgre.pdf4teachers.components.menus.NodeMenuItem;
-import fr.clementgre.pdf4teachers.datasaving.Config;
 import fr.clementgre.pdf4teachers.datasaving.settings.Settings;
+import fr.clementgre.pdf4teachers.document.editions.data.TextElementData;
 import fr.clementgre.pdf4teachers.document.editions.undoEngine.ObservableChangedUndoAction;
 import fr.clementgre.pdf4teachers.document.editions.undoEngine.UType;
 import fr.clementgre.pdf4teachers.document.render.display.PageRenderer;
@@ -51,8 +51,6 @@ import writer2latex.api.StarMathConverter;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.regex.Pattern;
 
 public class TextElement extends Element {
@@ -98,6 +96,7 @@ public class TextElement extends Element {
         textProperty().addListener((observable, oldValue, newValue) -> {
             updateText();
             this.textNode.setUnderline(isURL());
+            Edition.setUnsave("TextElement text changed", this);
             
             if(isSelected() && !MainWindow.textTab.txtArea.getText().equals(newValue)){ // Edit textArea from Element
                 StringUtils.editTextArea(MainWindow.textTab.txtArea, invertMathIfNeeded(newValue));
@@ -216,48 +215,19 @@ public class TextElement extends Element {
     // READER AND WRITERS
     
     @Override
-    public LinkedHashMap<Object, Object> getYAMLData(){
-        LinkedHashMap<Object, Object> data = super.getYAMLPartialData();
-        data.put("color", textNode.getFill().toString());
-        data.put("font", textNode.getFont().getFamily());
-        data.put("size", textNode.getFont().getSize());
-        data.put("bold", FontUtils.getFontWeight(textNode.getFont()) == FontWeight.BOLD);
-        data.put("italic", FontUtils.getFontPosture(textNode.getFont()) == FontPosture.ITALIC);
-        data.put("text", getText());
-        data.put("maxWidth", maxWidth.get());
-        
-        return data;
+    public TextElementData toData(){
+        return new TextElementData(getPageNumber(), getRealX(), getRealY(), (Color) textNode.getFill(), textNode.getFont().getFamily(), textNode.getFont().getSize(),
+                FontUtils.getFontWeight(textNode.getFont()) == FontWeight.BOLD, FontUtils.getFontPosture(textNode.getFont()) == FontPosture.ITALIC,
+                getText(), maxWidth.get());
     }
     
-    public static void readYAMLDataAndCreate(HashMap<String, Object> data, int page, boolean upscaleGrid){
-        TextElement element = readYAMLDataAndGive(data, true, page, upscaleGrid);
+    public static void createFromData(TextElementData data){
+        TextElement element = data.toElement(true);
         
         if(MainWindow.mainScreen.document.getPagesNumber() > element.getPageNumber())
             MainWindow.mainScreen.document.getPage(element.getPageNumber()).addElement(element, false, UType.NO_UNDO);
     }
     
-    public static TextElement readYAMLDataAndGive(HashMap<String, Object> data, boolean hasPage, int page, boolean upscaleGrid){
-        
-        int x = (int) Config.getLong(data, "x");
-        int y = (int) Config.getLong(data, "y");
-        double fontSize = Config.getDouble(data, "size");
-        boolean isBold = Config.getBoolean(data, "bold");
-        boolean isItalic = Config.getBoolean(data, "italic");
-        String fontName = Config.getString(data, "font");
-        Color color = Color.valueOf(Config.getString(data, "color"));
-        String text = Config.getString(data, "text");
-        double maxWidth = Config.getDouble(data, "maxWidth");
-        
-        Font font = FontUtils.getFont(fontName, isItalic, isBold, (int) fontSize);
-        
-        if(upscaleGrid){ // Between 1.2.1 and 1.3.0, the grid size was multiplied by 100
-            x *= 100;
-            y *= 100;
-        }
-        
-        return new TextElement(x, y, page, hasPage, text, color, font, maxWidth);
-    }
-    
     // SPECIFIC METHODS
     
     public float getBaseLineY(){
@@ -6,8 +6,8 @@
 package fr.clementgre.pdf4teachers.document.editions.elements;
 
 import fr.clementgre.pdf4teachers.components.menus.NodeMenuItem;
-import fr.clementgre.pdf4teachers.datasaving.Config;
 import fr.clementgre.pdf4teachers.document.editions.Edition;
+import fr.clementgre.pdf4teachers.document.editions.data.VectorElementData;
 import fr.clementgre.pdf4teachers.document.editions.undoEngine.ObservableChangedUndoAction;
 import fr.clementgre.pdf4teachers.document.editions.undoEngine.UType;
 import fr.clementgre.pdf4teachers.document.render.display.PageRenderer;
@@ -29,8 +29,6 @@ import javafx.geometry.Bounds;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.*;
 
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 
 public class VectorElement extends GraphicElement{
     
@@ -115,7 +113,7 @@ public class VectorElement extends GraphicElement{
             noScaledSvgPath.setContent(getPath());
             svgPath.setContent(newValue);
             onSizeChanged();
-            Edition.setUnsave("VectorElement changed");
+            Edition.setUnsave("VectorElement changed", this);
     
             // New move added OR this is the first registration of this action/property.
             if(StringUtils.count(oldValue.toLowerCase(), 'm') != StringUtils.count(newValue.toLowerCase(), 'm')
@@ -128,67 +126,67 @@ public class VectorElement extends GraphicElement{
         fill.addListener((observable, oldValue, newValue) ->{
             if(linkedVectorData != null) linkedVectorData.setFill(newValue);
             updateFill();
-            Edition.setUnsave("VectorElement changed");
+            Edition.setUnsave("VectorElement changed", this);
             MainWindow.mainScreen.registerNewAction(new ObservableChangedUndoAction<>(this, fill, oldValue, UType.UNDO));
         });
         doFill.addListener((observable, oldValue, newValue) -> {
             if(linkedVectorData != null) linkedVectorData.setDoFill(newValue);
             updateFill();
-            Edition.setUnsave("VectorElement changed");
+            Edition.setUnsave("VectorElement changed", this);
             MainWindow.mainScreen.registerNewAction(new ObservableChangedUndoAction<>(this, doFill, oldValue, UType.UNDO));
         });
         
         stroke.addListener((observable, oldValue, newValue) -> {
             if(linkedVectorData != null) linkedVectorData.setStroke(newValue);
             updateStroke();
-            Edition.setUnsave("VectorElement changed");
+            Edition.setUnsave("VectorElement changed", this);
             MainWindow.mainScreen.registerNewAction(new ObservableChangedUndoAction<>(this, stroke, oldValue, UType.UNDO));
         });
         strokeWidth.addListener((observable, oldValue, newValue) -> {
             if(linkedVectorData != null) linkedVectorData.setStrokeWidth(newValue.intValue());
             updateStroke();
             onSizeChanged();
-            Edition.setUnsave("VectorElement changed");
+            Edition.setUnsave("VectorElement changed", this);
             MainWindow.mainScreen.registerNewAction(new ObservableChangedUndoAction<>(this, strokeWidth, oldValue, UType.UNDO));
         });
     
         repeatModeProperty().addListener((o, oldValue, newValue) -> {
             if(linkedVectorData != null) linkedVectorData.setRepeatMode(newValue);
             onSizeChanged();
-            Edition.setUnsave("VectorElement changed");
+            Edition.setUnsave("VectorElement changed", this);
             MainWindow.mainScreen.registerNewAction(new ObservableChangedUndoAction<>(this, repeatMode, oldValue, UType.UNDO));
         });
         resizeModeProperty().addListener((o, oldValue, newValue) -> {
             if(linkedVectorData != null) linkedVectorData.setResizeMode(newValue);
             onSizeChanged();
-            Edition.setUnsave("VectorElement changed");
+            Edition.setUnsave("VectorElement changed", this);
             MainWindow.mainScreen.registerNewAction(new ObservableChangedUndoAction<>(this, resizeMode, oldValue, UType.UNDO));
         });
         
         invertXProperty().addListener((observable, oldValue, newValue) -> {
             if(linkedVectorData != null) linkedVectorData.setInvertX(newValue);
             onSizeChanged();
-            Edition.setUnsave("VectorElement changed");
+            Edition.setUnsave("VectorElement changed", this);
         });
         invertYProperty().addListener((observable, oldValue, newValue) -> {
             if(linkedVectorData != null) linkedVectorData.setInvertY(newValue);
             onSizeChanged();
-            Edition.setUnsave("VectorElement changed");
+            Edition.setUnsave("VectorElement changed", this);
         });
         
         realWidthProperty().addListener((observable, oldValue, newValue) -> {
             if(linkedVectorData != null) linkedVectorData.setWidth(newValue.intValue());
-            Edition.setUnsave("VectorElement changed");
+            Edition.setUnsave("VectorElement changed", this);
         });
         realHeightProperty().addListener((observable, oldValue, newValue) -> {
             if(linkedVectorData != null) linkedVectorData.setHeight(newValue.intValue());
-            Edition.setUnsave("VectorElement changed");
+            Edition.setUnsave("VectorElement changed", this);
         });
         
         arrowLength.addListener((observable, oldValue, newValue) -> {
             if(linkedVectorData != null) linkedVectorData.setArrowLength(newValue.intValue());
             onSizeChanged();
-            Edition.setUnsave("VectorElement changed");
+            Edition.setUnsave("VectorElement changed", this);
             MainWindow.mainScreen.registerNewAction(new ObservableChangedUndoAction<>(this, arrowLength, oldValue, UType.UNDO));
         });
     }
@@ -421,55 +419,17 @@ public class VectorElement extends GraphicElement{
     // READER AND WRITERS
     
     @Override
-    public LinkedHashMap<Object, Object> getYAMLData(){
-        LinkedHashMap<Object, Object> data = super.getYAMLPartialData();
-        data.put("doFill", doFill.get());
-        data.put("fill", fill.get().toString());
-        data.put("stroke", stroke.get().toString());
-        data.put("strokeWidth", strokeWidth.get());
-        data.put("path", path.get());
-        data.put("invertX", invertX.get());
-        data.put("invertY", invertY.get());
-        data.put("arrowLength", arrowLength.get());
-        
-        return data;
+    public VectorElementData toData(){
+        return new VectorElementData(getPageNumber(), getRealX(), getRealY(), getRealWidth(), getRealHeight(), getRepeatMode(), getResizeMode(),
+                doFill.get(), fill.get(), stroke.get(), strokeWidth.get(), path.get(), invertX.get(), invertY.get(), arrowLength.get());
     }
     
-    public static void readYAMLDataAndCreate(HashMap<String, Object> data, int page){
-        VectorElement element = readYAMLDataAndGive(data, true, page);
+    public static void createFromData(VectorElementData data){
+        VectorElement element = data.toElement(true);
         if(MainWindow.mainScreen.document.getPagesNumber() > element.getPageNumber())
             MainWindow.mainScreen.document.getPage(element.getPageNumber()).addElement(element, false, UType.NO_UNDO);
     }
     
-    public static VectorElement readYAMLDataAndGive(HashMap<String, Object> data, boolean hasPage, int page){
-        
-        int x = (int) Config.getLong(data, "x");
-        int y = (int) Config.getLong(data, "y");
-        int width = (int) Config.getLong(data, "width");
-        int height = (int) Config.getLong(data, "height");
-        boolean doFill = Config.getBoolean(data, "doFill");
-        Color fill = Color.DARKGRAY;
-        Color stroke = Color.BLACK;
-        try{
-            fill = Color.valueOf(Config.getString(data, "fill"));
-            stroke = Color.valueOf(Config.getString(data, "stroke"));
-        }catch(IllegalArgumentException e){
-            Log.e("Unable to parse VectorElement color: " + e.getMessage());
-        }
-        int strokeWidth = (int) Config.getLong(data, "strokeWidth");
-        String path = Config.getString(data, "path");
-    
-        boolean invertX = Config.getBoolean(data, "invertX");
-        boolean invertY = Config.getBoolean(data, "invertY");
-        
-        int arrowLength = (int) Config.getLong(data, "arrowLength");
-        
-        RepeatMode repeatMode = RepeatMode.valueOf(Config.getString(data, "repeatMode"));
-        ResizeMode resizeMode = ResizeMode.valueOf(Config.getString(data, "resizeMode"));
-        
-        return new VectorElement(x, y, page, hasPage, width, height, repeatMode, resizeMode, doFill, fill, stroke, strokeWidth, path, invertX, invertY, arrowLength);
-    }
-    
     // EDIT MODE
     
     public void enterEditMode(){
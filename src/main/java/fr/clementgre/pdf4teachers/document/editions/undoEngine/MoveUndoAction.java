@@ -50,7 +50,7 @@ public class MoveUndoAction extends UndoAction{
             realY = oldRealY;
             page = oldPage;
     
-            Edition.setUnsave("MoveUndoAction");
+            Edition.setUnsave("MoveUndoAction", element);
             return true;
         }
         
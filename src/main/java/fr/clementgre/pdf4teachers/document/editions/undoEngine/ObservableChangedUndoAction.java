@@ -61,7 +61,7 @@ public class ObservableChangedUndoAction<T> extends UndoAction{
                 if(vectorElementBeforeBounds != null && !element.isEditMode() && getUndoType() == UType.UNDO) element.correctDimensions(vectorElementBeforeBounds);
             }
     
-            Edition.setUnsave("ObservableChangedUndoAction");
+            Edition.setUnsave("ObservableChangedUndoAction", element.get());
             return true;
         }
         return false;
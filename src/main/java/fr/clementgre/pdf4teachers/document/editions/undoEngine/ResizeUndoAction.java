@@ -41,7 +41,7 @@ public class ResizeUndoAction extends MoveUndoAction{
             realWidth = oldRealWidth;
             realHeight = oldRealHeight;
     
-            Edition.setUnsave("ResizeUndoAction");
+            Edition.setUnsave("ResizeUndoAction", element);
             return true;
         }
         return false;
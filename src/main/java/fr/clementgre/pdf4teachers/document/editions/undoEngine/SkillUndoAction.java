@@ -50,7 +50,7 @@ public class SkillUndoAction extends UndoAction{
     
         MainWindow.skillsTab.getSkillTableElement().updateSkillsNotation();
         MainWindow.skillsTab.refreshListView();
-        Edition.setUnsave("SkillListCell ComboBox notation changed");
+        Edition.setUnsave("SkillListCell ComboBox notation changed", MainWindow.skillsTab.getSkillTableElement());
         
         return true;
     }
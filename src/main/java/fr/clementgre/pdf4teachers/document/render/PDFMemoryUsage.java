@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document.render;
+
+import fr.clementgre.pdf4teachers.Main;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+
+import java.io.File;
+
+// Memory used by PDFBox for the streams of the loaded and created documents (kept until the document is saved and closed).
+// The streams are kept in memory up to a cap, then written in a temporary file (MemoryUsageSetting.setupMixed()).
+// The cap is a percentage of the max heap (settings.pdfMemory), shared by the documents used at the same time.
+// The documents whose file is small compared to the cap are kept in memory only: no temporary file is created.
+public class PDFMemoryUsage {
+    
+    private static final long MIN_CAP = 16 * 1024 * 1024;
+    // A document is kept in memory only if its file is MEMORY_ONLY_RATIO times smaller than the cap:
+    // the decoded streams are often several times larger than the file.
+    private static final int MEMORY_ONLY_RATIO = 4;
+    
+    public static long getCap(){
+        return Runtime.getRuntime().maxMemory() / 100 * Main.settings.pdfMemory.getValue();
+    }
+    
+    public static MemoryUsageSetting get(File file){
+        return get(file.length(), 1);
+    }
+    // fileLength : size of the file to load, or of the content to add to a new document.
+    // documents : number of documents that can be loaded at the same time with this setting (they share the cap).
+    public static MemoryUsageSetting get(long fileLength, int documents){
+        long cap = Math.max(MIN_CAP, getCap() / Math.max(1, documents));
+        if(fileLength * MEMORY_ONLY_RATIO <= cap) return MemoryUsageSetting.setupMainMemoryOnly();
+        return MemoryUsageSetting.setupMixed(cap);
+    }
+}
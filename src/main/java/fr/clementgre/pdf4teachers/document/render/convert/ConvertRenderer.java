@@ -95,7 +95,7 @@ public class ConvertRenderer {
     private void convertFile(File[] files, File out) throws IOException{
         
         
-        ConvertedFile convertedFile = new ConvertedFile(out);
+        ConvertedFile convertedFile = new ConvertedFile(out, Arrays.stream(files).mapToLong(File::length).sum());
         /*if(convertPane.convertToExistingDoc){
             convertedFile = new ConvertedFile(out);
         }else{
@@ -5,6 +5,7 @@
 
 package fr.clementgre.pdf4teachers.document.render.convert;
 
+import fr.clementgre.pdf4teachers.document.render.PDFMemoryUsage;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 
@@ -15,9 +16,10 @@ public class ConvertedFile {
     public PDDocument document;
     public File file;
     
-    public ConvertedFile(File file){
+    // contentLength : size of the converted files, to choose how the images will be stored (see PDFMemoryUsage).
+    public ConvertedFile(File file, long contentLength){
         this.file = file;
-        this.document = new PDDocument();
+        this.document = new PDDocument(PDFMemoryUsage.get(contentLength, 1));
     }
     
     public void addPage(PDPage page){
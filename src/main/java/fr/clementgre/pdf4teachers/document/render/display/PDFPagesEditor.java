@@ -15,6 +15,7 @@ import fr.clementgre.pdf4teachers.document.editions.undoEngine.UndoEngine;
 import fr.clementgre.pdf4teachers.document.editions.undoEngine.pages.PageAddRemoveUndoAction;
 import fr.clementgre.pdf4teachers.document.editions.undoEngine.pages.PageMoveUndoAction;
 import fr.clementgre.pdf4teachers.document.editions.undoEngine.pages.PageRotateUndoAction;
+import fr.clementgre.pdf4teachers.document.render.PDFMemoryUsage;
 import fr.clementgre.pdf4teachers.document.render.convert.ConvertWindow;
 import fr.clementgre.pdf4teachers.document.render.convert.ConvertedFile;
 import fr.clementgre.pdf4teachers.interfaces.windows.MainWindow;
@@ -28,6 +29,7 @@ import fr.clementgre.pdf4teachers.utils.dialogs.FilesChooserManager;
 import fr.clementgre.pdf4teachers.utils.dialogs.alerts.ButtonPosition;
 import fr.clementgre.pdf4teachers.utils.dialogs.alerts.ComboBoxDialog;
 import fr.clementgre.pdf4teachers.utils.dialogs.alerts.ErrorAlert;
+import fr.clementgre.pdf4teachers.utils.interfaces.CallBack;
 import fr.clementgre.pdf4teachers.utils.interfaces.TwoStepListAction;
 import fr.clementgre.pdf4teachers.utils.interfaces.TwoStepListInterface;
 import fr.clementgre.pdf4teachers.utils.objects.PositionDimensions;
@@ -47,7 +49,9 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.stage.FileChooser;
 import javafx.util.Duration;
-import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.multipdf.PDFMergerUtility;
 import org.apache.pdfbox.multipdf.PageExtractor;
 import org.apache.pdfbox.multipdf.Splitter;
@@ -56,45 +60,134 @@ import org.apache.pdfbox.pdmodel.PDPage;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 public class PDFPagesEditor {
     
     private final PDDocument document;
+    // Shared with the render workers of PDFPagesRender: the structural edits of the document and the saves need the write lock.
+    private final ReentrantReadWriteLock documentLock;
     private final File file;
-    private boolean edited;
+    private volatile boolean edited;
+    // Pages have been added or removed since the last save: the file needs to be fully rewritten.
+    private volatile boolean needsFullSave;
+    // Rotations and moves are saved as an incremental update, appended to the file content when it was loaded.
+    // Once the file has been rewritten by a full save, the document is no longer matching the file content.
+    private boolean incrementalSaveAvailable;
+    private final long loadedLength;
     
     private final UndoEngine undoEngine = new UndoEngine(false);
     
-    public PDFPagesEditor(PDDocument document, File file){
+    private final CallBack onEditsSaved;
+    
+    public PDFPagesEditor(PDDocument document, ReentrantReadWriteLock documentLock, File file, CallBack onEditsSaved){
         this.document = document;
+        this.documentLock = documentLock;
         this.file = file;
+        this.onEditsSaved = onEditsSaved;
+        this.loadedLength = file.length();
+        this.incrementalSaveAvailable = !document.isEncrypted();
     }
     
+    // Can be called from any thread
     public void saveEditsIfNeeded(){
         if(edited) saveEdits();
     }
     public void saveEdits(){
         try{
-            document.setAllSecurityToBeRemoved(true);
-            document.save(file);
-            edited = false;
+            documentLock.writeLock().lock();
+            try{
+                if(needsFullSave || !incrementalSaveAvailable){
+                    incrementalSaveAvailable = false;
+                    document.setAllSecurityToBeRemoved(true);
+                    document.save(file);
+                }else{
+                    saveIncrementally();
+                }
+                edited = false;
+                needsFullSave = false;
+            }finally{
+                documentLock.writeLock().unlock();
+            }
+            onEditsSaved.call();
         }catch(IOException e){
             Log.e(e);
-            ErrorAlert alert = new ErrorAlert(TR.tr("dialog.error.unableToSavePDFPagesEdits"), e.getMessage(), false);
-            alert.getButtonTypes().clear();
-            alert.addIgnoreButton(ButtonPosition.CLOSE);
-            alert.addDefaultButton(TR.tr("actions.retry"));
+            incrementalSaveAvailable = false; // The file may be truncated: retry with a full save
+            boolean retry = PlatformUtils.runAndWait(() -> {
+                ErrorAlert alert = new ErrorAlert(TR.tr("dialog.error.unableToSavePDFPagesEdits"), e.getMessage(), false);
+                alert.getButtonTypes().clear();
+                alert.addIgnoreButton(ButtonPosition.CLOSE);
+                alert.addDefaultButton(TR.tr("actions.retry"));
+                return alert.getShowAndWaitIsDefaultButton();
+            });
             
-            if(alert.getShowAndWaitIsDefaultButton()) saveEdits();
+            if(retry) saveEdits();
             else edited = false;
         }
     }
     
+    // The output of saveIncremental() is the file content when it was loaded, followed by the increment.
+    // Only the increment is written: it replaces the previous one, that is included in it (the updated objects stay marked).
+    private void saveIncrementally() throws IOException{
+        try(RandomAccessFile output = new RandomAccessFile(file, "rw")){
+            output.setLength(loadedLength);
+            output.seek(loadedLength);
+            try(OutputStream increment = new BufferedOutputStream(new IncrementOutputStream(output, loadedLength))){
+                document.saveIncremental(increment);
+            }
+        }
+    }
+    private static class IncrementOutputStream extends OutputStream {
+        private final RandomAccessFile output;
+        private long toSkip;
+        
+        private IncrementOutputStream(RandomAccessFile output, long toSkip){
+            this.output = output;
+            this.toSkip = toSkip;
+        }
+        @Override
+        public void write(int b) throws IOException{
+            if(toSkip > 0) toSkip--;
+            else output.write(b);
+        }
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException{
+            int skipped = (int) Math.min(toSkip, len);
+            toSkip -= skipped;
+            if(len > skipped) output.write(b, off + skipped, len - skipped);
+        }
+    }
+    
+    // Marks the objects from the catalog to the page to be written in the next incremental update.
+    private void markPageUpdated(PDPage page){
+        document.getDocumentCatalog().getCOSObject().setNeedToBeUpdated(true);
+        COSDictionary dictionary = page.getCOSObject();
+        while(dictionary != null){
+            dictionary.setNeedToBeUpdated(true);
+            dictionary = dictionary.getDictionaryObject(COSName.PARENT) instanceof COSDictionary parent ? parent : null;
+        }
+    }
+    // The page tree is rebuilt by the moves: all the pages have a new parent, and the /Kids and /Count
+    // of the intermediate /Pages nodes are changed, so the whole tree is written.
+    private void markPageTreeUpdated(){
+        document.getDocumentCatalog().getCOSObject().setNeedToBeUpdated(true);
+        markPageTreeNodeUpdated(document.getPages().getCOSObject(), new HashSet<>());
+    }
+    private void markPageTreeNodeUpdated(COSDictionary node, Set<COSDictionary> visited){
+        if(!visited.add(node)) return; // Malformed tree with a cycle
+        node.setNeedToBeUpdated(true);
+        if(node.getDictionaryObject(COSName.KIDS) instanceof COSArray kids){
+            kids.setNeedToBeUpdated(true);
+            for(int i = 0; i < kids.size(); i++){
+                if(kids.getObject(i) instanceof COSDictionary kid) markPageTreeNodeUpdated(kid, visited);
+            }
+        }
+    }
+    
     // ascendPage and descendPage are registering an UndoAction,
     // but it is not the case of the others moving functions.
     public void ascendPage(PageRenderer page){
@@ -114,10 +207,16 @@ public class PDFPagesEditor {
         List<PageRenderer> savedSelectedPages = saveSelectedPages();
         
         page.quitVectorEditMode();
-        PDPage docPage = document.getPage(page.getPage());
-        
-        document.removePage(docPage);
-        addDocumentPage(index, docPage);
+        documentLock.writeLock().lock();
+        try{
+            PDPage docPage = document.getPage(page.getPage());
+            
+            document.removePage(docPage);
+            addDocumentPage(index, docPage, false);
+            markPageTreeUpdated();
+        }finally{
+            documentLock.writeLock().unlock();
+        }
         
         Document document = MainWindow.mainScreen.document;
         
@@ -142,8 +241,14 @@ public class PDFPagesEditor {
     public void rotatePage(PageRenderer page, boolean right, UType uType, boolean animated){
         int angle = right ? 90 : -90;
         page.quitVectorEditMode();
-        document.getPage(page.getPage()).setRotation(document.getPage(page.getPage()).getRotation() + angle);
-        edited = true;
+        documentLock.writeLock().lock();
+        try{
+            document.getPage(page.getPage()).setRotation(document.getPage(page.getPage()).getRotation() + angle);
+            markPageUpdated(document.getPage(page.getPage()));
+            markEdited(false);
+        }finally{
+            documentLock.writeLock().unlock();
+        }
         
         MainWindow.mainScreen.registerNewPageAction(new PageRotateUndoAction(uType, page, right));
         
@@ -218,8 +323,13 @@ public class PDFPagesEditor {
     public void deletePageUtil(PageRenderer page){
         
         page.quitVectorEditMode();
-        document.removePage(page.getPage());
-        edited = true;
+        documentLock.writeLock().lock();
+        try{
+            document.removePage(page.getPage());
+            markEdited(true);
+        }finally{
+            documentLock.writeLock().unlock();
+        }
         
         int pageNumber = page.getPage();
         
@@ -260,7 +370,7 @@ public class PDFPagesEditor {
         
         PageRenderer page = new PageRenderer(index);
         
-        addDocumentPage(index, docPage);
+        addDocumentPage(index, docPage, true);
     
         Document document = MainWindow.mainScreen.document;
     
@@ -310,7 +420,7 @@ public class PDFPagesEditor {
         if(file != null){
             if(file.getParentFile().exists()) MainWindow.userData.lastOpenDir = file.getParentFile().getAbsolutePath();
             try{
-                PDDocument fileDoc = PDDocument.load(file);
+                PDDocument fileDoc = PDDocument.load(file, PDFMemoryUsage.get(file));
                 addPdfDocument(fileDoc, index);
             }catch(IOException e){
                 Log.eNotified(e);
@@ -326,14 +436,15 @@ public class PDFPagesEditor {
         PDFMergerUtility merger = new PDFMergerUtility();
     
         int addedPages = toAddDoc.getNumberOfPages();
+        documentLock.writeLock().lock();
         try{
             merger.appendDocument(this.document, toAddDoc);
-            merger.mergeDocuments(MemoryUsageSetting.setupMainMemoryOnly());
         }catch(IOException e){
             Log.eNotified(e);
+        }finally{
+            markEdited(true); // Some pages may have been appended before the error
+            documentLock.writeLock().unlock();
         }
-        
-        edited = true;
     
         for(int j = 0; j < addedPages; j++){
             PageRenderer page = new PageRenderer(index);
@@ -385,67 +496,88 @@ public class PDFPagesEditor {
         MainWindow.mainScreen.document.updateSelectedPages();
     }
     
-    public void addDocumentPage(final int index, final PDPage page){
-
-        if(index >= document.getNumberOfPages())
-            document.addPage(page);
-        else{
+    // fullSave : false if the caller marks the updated objects for an incremental save, before unlocking the document.
+    public void addDocumentPage(final int index, final PDPage page, boolean fullSave){
+        
+        documentLock.writeLock().lock();
+        try{
+            if(index >= document.getNumberOfPages())
+                document.addPage(page);
+            else{
+                ArrayList<PDPage> pages = new ArrayList<>();
+                
+                // save pages
+                for(int i = 0; i < document.getPages().getCount(); i++){
+                    if(index == i) pages.add(page);
+                    pages.add(document.getPage(i));
+                }
+                // remove pages
+                while(document.getPages().getCount() != 0) document.removePage(0);
+                
+                // add pages
+                for(PDPage pageToAdd : pages) document.addPage(pageToAdd);
+            }
+            markEdited(fullSave);
+        }finally{
+            documentLock.writeLock().unlock();
+        }
+    }
+    
+    private void moveDocumentPage(final int from, final int to){
+        
+        documentLock.writeLock().lock();
+        try{
             ArrayList<PDPage> pages = new ArrayList<>();
             
-            // save pages
+            // save non-from pages
             for(int i = 0; i < document.getPages().getCount(); i++){
-                if(index == i) pages.add(page);
-                pages.add(document.getPage(i));
+                if(i != from) pages.add(document.getPage(i));
             }
+            // save from page
+            pages.add(to, document.getPages().get(from));
+            
             // remove pages
             while(document.getPages().getCount() != 0) document.removePage(0);
             
             // add pages
             for(PDPage pageToAdd : pages) document.addPage(pageToAdd);
+            markEdited(true); // The page tree is rebuilt
+        }finally{
+            documentLock.writeLock().unlock();
         }
-        edited = true;
-    }
-    
-    private void moveDocumentPage(final int from, final int to){
-        
-        ArrayList<PDPage> pages = new ArrayList<>();
-        
-        // save non-from pages
-        for(int i = 0; i < document.getPages().getCount(); i++){
-            if(i != from) pages.add(document.getPage(i));
-        }
-        // save from page
-        pages.add(to, document.getPages().get(from));
-        
-        // remove pages
-        while(document.getPages().getCount() != 0) document.removePage(0);
-        
-        // add pages
-        for(PDPage pageToAdd : pages) document.addPage(pageToAdd);
-        edited = true;
     }
     
     public PDDocument extractPages(List<Integer> indices) throws IOException{
         Splitter splitter = new Splitter();
+        splitter.setMemoryUsageSetting(PDFMemoryUsage.get(file));
         
         PDDocument output = null;
-        List<PDDocument> documents = splitter.split(document);
+        List<PDDocument> documents;
+        documentLock.readLock().lock();
+        try{
+            documents = splitter.split(document);
+        }finally{
+            documentLock.readLock().unlock();
+        }
     
         PDFMergerUtility merger = new PDFMergerUtility();
-    
         
         for(int index : indices){
             if(output == null) output = documents.get(index);
             else{
                 merger.appendDocument(output, documents.get(index));
-                merger.mergeDocuments(MemoryUsageSetting.setupMainMemoryOnly());
                 documents.get(index).close();
             }
         }
         return output;
     }
     public PDDocument extractPages(int startIndex, int endIndex) throws IOException{
-        return new PageExtractor(document, startIndex+1, endIndex+1).extract();
+        documentLock.readLock().lock();
+        try{
+            return new PageExtractor(document, startIndex+1, endIndex+1).extract();
+        }finally{
+            documentLock.readLock().unlock();
+        }
     }
     
     // OTHER
@@ -609,7 +741,9 @@ public class PDFPagesEditor {
         if(!page.hasRenderedImage())
             return SwingFXUtils.toFXImage(capturePage(page, dimensions, 200000), null);
         if(dimensions == null){
-            return page.getRenderedImage();
+            // Copy: the rendered image raster is reused by the page once it drops its render.
+            Image image = page.getRenderedImage();
+            return new WritableImage(image.getPixelReader(), (int) image.getWidth(), (int) image.getHeight());
         }else{
             Image image = page.getRenderedImage();
             double factor = image.getHeight() / page.getHeight();
@@ -666,7 +800,19 @@ public class PDFPagesEditor {
     public boolean isEdited(){
         return edited;
     }
+    // The document has been edited directly (getDocument()), it will be fully saved.
     public void markAsEdited(){
+        documentLock.writeLock().lock();
+        try{
+            markEdited(true);
+        }finally{
+            documentLock.writeLock().unlock();
+        }
+    }
+    // Must be called with the write lock held, like saveEdits() that clears the flags: an edit can't be saved halfway or forgotten.
+    // needsFullSave is set before edited, so an edit is never seen without its save mode.
+    private void markEdited(boolean fullSave){
+        if(fullSave) needsFullSave = true;
         edited = true;
     }
     public UndoEngine getUndoEngine(){
@@ -675,4 +821,8 @@ public class PDFPagesEditor {
     public PDDocument getDocument(){
         return document;
     }
+    // Must be locked in write mode to edit the pages of getDocument() directly.
+    public ReentrantReadWriteLock getDocumentLock(){
+        return documentLock;
+    }
 }
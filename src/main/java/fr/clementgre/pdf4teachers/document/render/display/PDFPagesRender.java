@@ -5,9 +5,12 @@
 
 package fr.clementgre.pdf4teachers.document.render.display;
 
+import fr.clementgre.pdf4teachers.document.render.PDFMemoryUsage;
+import fr.clementgre.pdf4teachers.document.render.display.PageRenderQueue.RenderRequest;
 import fr.clementgre.pdf4teachers.interfaces.windows.MainWindow;
 import fr.clementgre.pdf4teachers.interfaces.windows.language.TR;
 import fr.clementgre.pdf4teachers.interfaces.windows.log.Log;
+import fr.clementgre.pdf4teachers.utils.FilesUtils;
 import fr.clementgre.pdf4teachers.utils.PlatformUtils;
 import fr.clementgre.pdf4teachers.utils.dialogs.AlertIconType;
 import fr.clementgre.pdf4teachers.utils.interfaces.CallBackArg;
@@ -17,7 +20,6 @@ import javafx.scene.image.Image;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
-import org.apache.pdfbox.rendering.ImageType;
 import org.apache.pdfbox.rendering.PDFRenderer;
 import org.apache.pdfbox.rendering.RenderDestination;
 
@@ -26,121 +28,279 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class PDFPagesRender {
     
-    private record RenderPending(PageRenderer page, int width, CallBackArg<Image> callBack) {}
+    // Leave one core to the FX thread, and cap the count: each worker holds a full page raster while rendering.
+    public static final int RENDER_WORKERS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    // Zoom factor of the quick render displayed while the page is rendering
+    public static final double PREVIEW_ZOOM = .3;
     
     private final File file;
     public PDFPagesEditor editor;
     private PDDocument document;
-    private PDFRenderer pdfRenderer;
+    // Read: renders. Write: structural edits of the pages (PDFPagesEditor), saves and closing.
+    private final ReentrantReadWriteLock documentLock = new ReentrantReadWriteLock();
     
-    private final ArrayList<RenderPending> rendersPending = new ArrayList<>();
+    private final PageRenderQueue rendersPending = new PageRenderQueue();
+    private final PageRasterPool rasterPool = new PageRasterPool();
+    private final PageImageCache imageCache = new PageImageCache();
+    private volatile double renderingZoomFactor = -1;
+    private final ArrayList<Thread> renderWorkers = new ArrayList<>();
+    // PDFBox is not thread safe: the document is read by one render at a time (workers and renderPageBasic()).
+    // The workers still read the disk cache and convert the renders to FX images concurrently.
+    private final Object renderLock = new Object();
+    private PDFRenderer renderer;
+    // Hash of the file content, key of the renders in PageRenderDiskCache (null while it is computed).
+    private volatile String fileHash;
+    private final AtomicInteger aliveRenderWorkers = new AtomicInteger();
     
     public boolean advertisement;
-    private boolean shouldClose;
-    private boolean isClosed;
+    private volatile boolean shouldClose;
+    private volatile boolean isClosed;
     
     public PDFPagesRender(File file) throws IOException{
         this.file = file;
         
-        document = PDDocument.load(file);
-        pdfRenderer = new PDFRenderer(document);
-        editor = new PDFPagesEditor(document, file);
+        document = PDDocument.load(file, PDFMemoryUsage.get(file));
+        editor = new PDFPagesEditor(document, documentLock, file, this::onEditsSaved);
         
+        updateFileHash();
         setupThread();
     }
+    
+    private void updateFileHash(){
+        fileHash = null;
+        new Thread(() -> {
+            try{
+                fileHash = FilesUtils.getContentHash(file);
+            }catch(IOException e){
+                Log.w("Unable to hash " + file.getName() + ", the renders will not be cached on disk: " + e.getMessage());
+            }
+        }, "Render Cache Hasher").start();
+    }
+    // The file has been rewritten: the cached renders of its old content are no longer used.
+    private void onEditsSaved(){
+        String oldHash = fileHash;
+        if(oldHash != null) PageRenderDiskCache.invalidate(oldHash);
+        updateFileHash();
+    }
     private void setupThread(){
         
-        new Thread(() -> {
-            
-            while(!shouldClose){ // not closed
-                
-                if(!rendersPending.isEmpty() && !rendersPending.get(0).page.isRemoved()){ // Render
-                    renderPage(rendersPending.get(0));
-                    rendersPending.remove(0);
+        aliveRenderWorkers.set(RENDER_WORKERS);
+        for(int i = 0; i < RENDER_WORKERS; i++){
+            Thread worker = new Thread(() -> {
+                while(!shouldClose){ // not closed
+                    RenderRequest request;
+                    try{
+                        request = rendersPending.take(); // Wait
+                    }catch(InterruptedException e){
+                        break; // Closing
+                    }
+                    if(shouldClose) continue;
                     
-                }else{ // Wait
-                    PlatformUtils.sleepThread(100);
+                    // The document is never rendered during a structural edit or a save.
+                    documentLock.readLock().lock();
+                    try{
+                        processRequest(request);
+                    }finally{
+                        documentLock.readLock().unlock();
+                    }
                 }
-            }
-            
-            // Close
-            pdfRenderer = null;
-            while(editor.isEdited()){ // wait until document pages are saved
-                PlatformUtils.sleepThread(100);
-            }
-            try{
-                document.close();
-            }catch(IOException e){ Log.eNotified(e); }
-            document = null;
-            isClosed = true;
-            
-        }, "Page Renderer").start();
+                
+                // The last worker to stop closes the document
+                if(aliveRenderWorkers.decrementAndGet() == 0) closeDocument();
+                
+            }, "Page Renderer #" + (i + 1));
+            renderWorkers.add(worker);
+            worker.start();
+        }
     
         // Save document pages each 10 seconds if needed
         new Thread(() -> {
             PlatformUtils.sleepThread(10000);
             while(!shouldClose){
-                PlatformUtils.runAndWait(() -> {
-                    editor.saveEditsIfNeeded();
-                    return null;
-                });
+                editor.saveEditsIfNeeded(); // The document is locked during the save, the FX thread is not blocked.
                 PlatformUtils.sleepThread(10000);
             }
         }, "Page Editor Saver").start();
     }
     
-    private void renderPage(RenderPending renderPending){
-        PDRectangle pageSize = getPageSize(renderPending.page.getPage());
+    private void processRequest(RenderRequest request){
+        if(request.page().isRemoved()){
+            dropRequest(request);
+            return;
+        }
+        if(request.page().getStatus() == PageStatus.HIDE){
+            dropRequest(request); // Page hard hidden since the request: the render would be ignored.
+            return;
+        }
+        if(request.preview()){
+            if(request.page().getStatus() == PageStatus.RENDERING) renderPage(request);
+            else dropRequest(request); // The page has been rendered: the preview is useless
+            return;
+        }
+        if(request.tile() != null){
+            if(!request.page().getTiles().isOutdated(request.tile(), request.zoomFactor())) renderTile(request);
+            else dropRequest(request);
+            return;
+        }
+        if(renderingZoomFactor != -1 && PageRenderer.isZoomFactorOutdated(request.zoomFactor(), renderingZoomFactor)){
+            // Zoom changed since the request: the page is rendered again with the current zoom, keeping the callback.
+            Platform.runLater(() -> request.page().renderWithCurrentZoom(request.callBack()));
+            return;
+        }
+        renderPage(request);
+    }
+    // The callbacks of the dropped requests are called with a null image:
+    // the coalesced requests callbacks are chained, and some callers are waiting for the render to end (page rotation).
+    private void dropRequest(RenderRequest request){
+        Platform.runLater(() -> request.callBack().call(null));
+    }
+    
+    private void closeDocument(){
+        rendersPending.clear();
+        while(editor.isEdited()){ // wait until document pages are saved
+            PlatformUtils.sleepThread(100);
+        }
+        documentLock.writeLock().lock();
+        try{
+            document.close();
+        }catch(IOException e){
+            Log.eNotified(e);
+        }finally{
+            document = null;
+            renderer = null;
+            documentLock.writeLock().unlock();
+        }
+        rasterPool.clear();
+        isClosed = true;
+    }
+    
+    private void renderPage(RenderRequest request){
+        PDRectangle pageSize = getPageSize(request.page().getPage());
+        
+        int width = Math.max(1, request.width());
+        int height = (int) Math.max(1, pageSize.getHeight() / pageSize.getWidth() * ((double) request.width()));
         
-        BufferedImage renderImage = new BufferedImage(Math.max(1, renderPending.width), (int) Math.max(1, pageSize.getHeight() / pageSize.getWidth() * ((double) renderPending.width)), BufferedImage.TYPE_INT_ARGB);
+        // The disk cache is not used for the previews, nor while the pages edits are not saved in the file.
+        String cacheHash = request.preview() || editor.isEdited() ? null : fileHash;
+        int rotation = cacheHash == null ? 0 : getPageRotation(request.page().getPage());
+        if(cacheHash != null && renderCachedPage(request, cacheHash, rotation, width, height)) return;
+        
+        BufferedImage renderImage = rasterPool.takeBufferedImage(width, height);
         Graphics2D graphics = renderImage.createGraphics();
         graphics.setBackground(Color.WHITE);
+        graphics.clearRect(0, 0, width, height); // The raster may contain a previous render
         
         try{
-            pdfRenderer.renderPageToGraphics(renderPending.page.getPage(), graphics,
-                    (float) renderPending.width / pageSize.getWidth(),
-                    (float) renderPending.width / pageSize.getWidth(),
-                    RenderDestination.VIEW);
+            synchronized(renderLock){
+                getRenderer().renderPageToGraphics(request.page().getPage(), graphics,
+                        (float) request.width() / pageSize.getWidth(),
+                        (float) request.width() / pageSize.getWidth(),
+                        RenderDestination.VIEW);
+            }
             
-            if(renderPending.page.isRemoved()){
-                // Nothing
-            }else if(document == null){
-                Platform.runLater(() -> renderPending.callBack.call(null));
+            if(request.page().isRemoved() || document == null){
+                dropRequest(request);
             }else{
-                Platform.runLater(() -> renderPending.callBack.call(SwingFXUtils.toFXImage(renderImage, null)));
+                // The conversion copies the pixels: the AWT raster can be reused right after.
+                Image image = SwingFXUtils.toFXImage(renderImage, rasterPool.takeFXImage(width, height));
+                Platform.runLater(() -> request.callBack().call(image));
             }
             graphics.dispose();
         }catch(Exception e){
             Log.eNotified(e);
-            Platform.runLater(() -> renderPending.callBack.call(null));
+            Platform.runLater(() -> request.callBack().call(null));
+            cacheHash = null;
         }
         
-        renderImage.flush();
-        System.gc(); // clear unused element in RAM
+        if(cacheHash != null && !request.page().isRemoved()){
+            PageRenderDiskCache.write(cacheHash, request.page().getPage(), width, rotation, renderImage, () -> rasterPool.recycle(renderImage));
+        }else rasterPool.recycle(renderImage);
+    }
+    // Returns false if the render is not in the disk cache.
+    private boolean renderCachedPage(RenderRequest request, String cacheHash, int rotation, int width, int height){
+        BufferedImage cached = PageRenderDiskCache.read(cacheHash, request.page().getPage(), width, rotation);
+        if(cached == null || cached.getWidth() != width || cached.getHeight() != height) return false;
+        
+        if(!request.page().isRemoved()){
+            Image image = SwingFXUtils.toFXImage(cached, rasterPool.takeFXImage(width, height));
+            Platform.runLater(() -> request.callBack().call(image));
+        }else dropRequest(request);
+        return true;
+    }
+    
+    // Renders only the tile of the page, with a clip.
+    private void renderTile(RenderRequest request){
+        PDRectangle pageSize = getPageSize(request.page().getPage());
+        PageTiles.Tile tile = request.tile();
+        float scale = (float) request.width() / pageSize.getWidth();
+        
+        BufferedImage renderImage = rasterPool.takeBufferedImage(tile.width(), tile.height());
+        Graphics2D graphics = renderImage.createGraphics();
+        graphics.setBackground(Color.WHITE);
+        graphics.clearRect(0, 0, tile.width(), tile.height());
+        graphics.clipRect(0, 0, tile.width(), tile.height());
+        graphics.translate(-tile.x(), -tile.y());
+        
+        try{
+            synchronized(renderLock){
+                getRenderer().renderPageToGraphics(request.page().getPage(), graphics, scale, scale, RenderDestination.VIEW);
+            }
+            
+            if(!request.page().isRemoved() && document != null){
+                Image image = SwingFXUtils.toFXImage(renderImage, rasterPool.takeFXImage(tile.width(), tile.height()));
+                Platform.runLater(() -> request.callBack().call(image));
+            }else dropRequest(request);
+            graphics.dispose();
+        }catch(Exception e){
+            Log.eNotified(e);
+            Platform.runLater(() -> request.callBack().call(null));
+        }
+        rasterPool.recycle(renderImage); // The tiles are not saved in the disk cache
     }
     
     public void renderPage(PageRenderer page, double size, CallBackArg<Image> callBack){
         // *1=595 | *1.5=892 |*2=1190
-        rendersPending.add(new RenderPending(page, (int) Math.max(1, 595 * 1.4 * size), callBack));
+        rendersPending.add(new RenderRequest(page, null, false, (int) Math.max(1, 595 * 1.4 * size), size, callBack), page.getViewportDistance());
+    }
+    public void renderPagePreview(PageRenderer page, CallBackArg<Image> callBack){
+        rendersPending.add(new RenderRequest(page, null, true, (int) Math.max(1, 595 * 1.4 * PREVIEW_ZOOM), PREVIEW_ZOOM, callBack), page.getViewportDistance());
+    }
+    public void renderTile(PageRenderer page, double size, PageTiles.Tile tile, CallBackArg<Image> callBack){
+        rendersPending.add(new RenderRequest(page, tile, false, tile.renderWidth(), size, callBack), page.getViewportDistance());
+    }
+    // Called when the viewport moves, to render first the pages that are the nearest of the viewport.
+    public void updateRenderPriority(PageRenderer page){
+        rendersPending.updateDistance(page, page.getViewportDistance());
+    }
+    // Set by Document when the zoom or the render settings change.
+    // Requests rendered with another zoom factor will be dropped by the workers.
+    public void setRenderingZoomFactor(double renderingZoomFactor){
+        this.renderingZoomFactor = renderingZoomFactor;
     }
     
     public BufferedImage renderPageBasic(int pageNumber, int width, int height){
         
-        PDRectangle pageSize = getPageSize(pageNumber);
-        
         BufferedImage renderImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
         Graphics2D graphics = renderImage.createGraphics();
         graphics.setBackground(Color.WHITE);
         
         try{
-            PDDocument document = PDDocument.load(file);
-            PDFRenderer pdfRenderer = new PDFRenderer(document);
-            pdfRenderer.renderPageToGraphics(pageNumber, graphics, width / pageSize.getWidth(), width / pageSize.getWidth(), RenderDestination.VIEW);
-            scale(pdfRenderer.renderImage(pageNumber, 3, ImageType.RGB), 1800);
-            document.close();
+            // Renders from the opened document: it can be called for each page (SplitEngine), without parsing the file each time.
+            documentLock.readLock().lock();
+            try{
+                if(document == null) return null;
+                PDRectangle pageSize = getPageSize(pageNumber);
+                synchronized(renderLock){
+                    getRenderer().renderPageToGraphics(pageNumber, graphics, width / pageSize.getWidth(), width / pageSize.getWidth(), RenderDestination.VIEW);
+                }
+            }finally{
+                documentLock.readLock().unlock();
+            }
             graphics.dispose();
             
             return renderImage;
@@ -150,6 +310,12 @@ public class PDFPagesRender {
         }
     }
     
+    // Must be called while holding renderLock.
+    private PDFRenderer getRenderer(){
+        if(renderer == null) renderer = new PDFRenderer(document);
+        return renderer;
+    }
+    
     public static void renderAdvertisement(){
         if(MainWindow.mainScreen.hasDocument(false)){
             if(!MainWindow.mainScreen.document.pdfPagesRender.advertisement){ // not already sended
@@ -163,18 +329,34 @@ public class PDFPagesRender {
     
     public void close(){
         shouldClose = true;
+        for(Thread worker : renderWorkers) worker.interrupt(); // Wake up waiting workers
         editor.saveEditsIfNeeded();
+        if(Log.doDebug()) Log.d(imageCache.toString());
     }
     public boolean isClosed(){
         return isClosed;
     }
     
+    public PageRasterPool getRasterPool(){
+        return rasterPool;
+    }
+    public PageImageCache getImageCache(){
+        return imageCache;
+    }
+    
     public PDDocument getDocument(){
         return document;
     }
     
     public int getNumberOfPages(){
-        return document.getNumberOfPages();
+        synchronized(renderLock){
+            return document.getNumberOfPages();
+        }
+    }
+    private int getPageRotation(int pageNumber){
+        synchronized(renderLock){
+            return document.getPage(pageNumber).getRotation();
+        }
     }
     
     public PDRectangle getPageSize(int pageNumber){
@@ -189,36 +371,14 @@ public class PDFPagesRender {
     }
     
     public PDRectangle getPageCropBox(int pageNumber){
-        PDPage page = document.getPage(pageNumber);
-        PDRectangle pageSize;
-        if(page.getRotation() == 90 || page.getRotation() == 270)
-            pageSize = new PDRectangle(page.getCropBox().getHeight(), page.getCropBox().getWidth());
-        else pageSize = page.getCropBox();
-        
-        return pageSize;
-    }
-    
-    public BufferedImage scale(BufferedImage img, double width){
-        
-        if(img.getWidth() < width){
-            return img;
+        synchronized(renderLock){ // Can be called from the FX thread while rendering
+            PDPage page = document.getPage(pageNumber);
+            PDRectangle pageSize;
+            if(page.getRotation() == 90 || page.getRotation() == 270)
+                pageSize = new PDRectangle(page.getCropBox().getHeight(), page.getCropBox().getWidth());
+            else pageSize = page.getCropBox();
+            
+            return pageSize;
         }
-        
-        int destWidth = (int) (width);
-        int destHeight = (int) (img.getHeight() / ((double) img.getWidth()) * width);
-        
-        //créer l'image de destination
-        GraphicsConfiguration configuration = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
-        BufferedImage newImg = configuration.createCompatibleImage(destWidth, destHeight);
-        
-        Graphics2D graphics = newImg.createGraphics();
-        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
-        
-        //dessiner l'image de destination
-        graphics.drawImage(img, 0, 0, destWidth, destHeight, 0, 0, img.getWidth(), img.getHeight(), null);
-        graphics.dispose();
-        
-        return newImg;
     }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document.render.display;
+
+import fr.clementgre.pdf4teachers.Main;
+import javafx.scene.image.Image;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Keeps track of the renders displayed by the pages of a document, and bounds their memory usage.
+// The budget is a percentage of the max heap (settings.renderCacheMemory). When it is exceeded,
+// the renders of the least recently visible pages are removed: they will be rendered again when they become visible.
+// Only used on the FX thread.
+public class PageImageCache {
+    
+    // Page -> bytes of its render, in the order of the last time the pages were visible.
+    private final LinkedHashMap<PageRenderer, Long> renders = new LinkedHashMap<>(16, .75f, true);
+    private long totalBytes;
+    
+    private long hits;
+    private long misses;
+    private long evictions;
+    
+    public static long getBudget(){
+        return Runtime.getRuntime().maxMemory() / 100 * Main.settings.renderCacheMemory.getValue();
+    }
+    private static long getBytes(Image image){
+        return 4L * (long) image.getWidth() * (long) image.getHeight();
+    }
+    
+    // Called when the page became visible
+    public void touch(PageRenderer page, boolean hit){
+        if(hit) hits++;
+        else misses++;
+        renders.get(page);
+    }
+    
+    // Called when the render of the page changes
+    public void put(PageRenderer page, Image image){
+        Long oldBytes = renders.put(page, getBytes(image));
+        totalBytes += getBytes(image) - (oldBytes == null ? 0 : oldBytes);
+    
+        if(totalBytes <= getBudget()) return;
+    
+        // Visible pages and pages that are rendering are kept.
+        ArrayList<PageRenderer> evicted = new ArrayList<>();
+        long bytes = totalBytes;
+        for(Map.Entry<PageRenderer, Long> entry : renders.entrySet()){
+            if(bytes <= getBudget()) break;
+            PageRenderer other = entry.getKey();
+            if(other == page || other.isInViewport() || other.getStatus() != PageStatus.RENDERED) continue;
+            evicted.add(other);
+            bytes -= entry.getValue();
+        }
+        for(PageRenderer other : evicted){
+            other.removeRender(); // Calls remove(other)
+            evictions++;
+        }
+    }
+    
+    public void remove(PageRenderer page){
+        Long bytes = renders.remove(page);
+        if(bytes != null) totalBytes -= bytes;
+    }
+    
+    public long getHits(){
+        return hits;
+    }
+    public long getMisses(){
+        return misses;
+    }
+    public long getEvictions(){
+        return evictions;
+    }
+    public long getTotalBytes(){
+        return totalBytes;
+    }
+    
+    @Override
+    public String toString(){
+        return "Page image cache: " + hits + " hits, " + misses + " misses, " + evictions + " evictions, "
+                + (totalBytes / 1024 / 1024) + "/" + (getBudget() / 1024 / 1024) + " MB";
+    }
+}
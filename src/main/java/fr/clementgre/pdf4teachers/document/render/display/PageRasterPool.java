@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document.render.display;
+
+import javafx.scene.image.WritableImage;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+
+// Reusable rasters for the pages renders, keyed by pixel size.
+// BufferedImages are the AWT rasters PDFBox renders into (recycled as soon as converted into a FX image),
+// WritableImages are the FX images used as background by PageRenderer (recycled when the page drops its render).
+// Pages of a document have often the same size, so scrolling reuses the same few rasters instead of allocating new ones.
+public class PageRasterPool {
+    
+    // Bytes of rasters kept in the pool (not counting the rasters in use)
+    private static final long MAX_POOLED_BYTES = Math.min(Runtime.getRuntime().maxMemory() / 10, 256L * 1024 * 1024);
+    
+    private final HashMap<Long, ArrayDeque<BufferedImage>> bufferedImages = new HashMap<>();
+    private final HashMap<Long, ArrayDeque<WritableImage>> fxImages = new HashMap<>();
+    private long pooledBytes;
+    
+    private static long getKey(int width, int height){
+        return ((long) width << 32) | (height & 0xFFFFFFFFL);
+    }
+    private static long getBytes(int width, int height){
+        return 4L * width * height; // Both are ARGB rasters
+    }
+    
+    // The returned image may contain an old render: it must be cleared before use.
+    public synchronized BufferedImage takeBufferedImage(int width, int height){
+        ArrayDeque<BufferedImage> images = bufferedImages.get(getKey(width, height));
+        if(images != null && !images.isEmpty()){
+            pooledBytes -= getBytes(width, height);
+            return images.pop();
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    }
+    // Returns null if there is no image of this size in the pool.
+    public synchronized WritableImage takeFXImage(int width, int height){
+        ArrayDeque<WritableImage> images = fxImages.get(getKey(width, height));
+        if(images != null && !images.isEmpty()){
+            pooledBytes -= getBytes(width, height);
+            return images.pop();
+        }
+        return null;
+    }
+    
+    public synchronized void recycle(BufferedImage image){
+        if(image == null || image.getType() != BufferedImage.TYPE_INT_ARGB) return;
+        if(!reserve(image.getWidth(), image.getHeight())) return;
+        bufferedImages.computeIfAbsent(getKey(image.getWidth(), image.getHeight()), k -> new ArrayDeque<>()).push(image);
+    }
+    public synchronized void recycle(WritableImage image){
+        if(image == null) return;
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        if(!reserve(width, height)) return;
+        fxImages.computeIfAbsent(getKey(width, height), k -> new ArrayDeque<>()).push(image);
+    }
+    private boolean reserve(int width, int height){
+        long bytes = getBytes(width, height);
+        if(pooledBytes + bytes > MAX_POOLED_BYTES) return false; // Full, the image will be garbage collected
+        pooledBytes += bytes;
+        return true;
+    }
+    
+    public synchronized void clear(){
+        bufferedImages.clear();
+        fxImages.clear();
+        pooledBytes = 0;
+    }
+}
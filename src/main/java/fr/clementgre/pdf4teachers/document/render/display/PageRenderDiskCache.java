@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document.render.display;
+
+import fr.clementgre.pdf4teachers.Main;
+import fr.clementgre.pdf4teachers.interfaces.windows.log.Log;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Pages renders saved on disk, under Main.dataFolder/renders, to avoid rendering again the pages of a document that is reopened.
+// Entries are keyed by the hash of the PDF file content, the page index, the render width and the page rotation.
+// The total size is capped: the least recently used entries are deleted first.
+public class PageRenderDiskCache {
+    
+    private static final long MAX_SIZE = 512L * 1024 * 1024;
+    private static final float JPEG_QUALITY = .9f;
+    
+    // Entry file name -> file size, in access order.
+    private static LinkedHashMap<String, Long> entries;
+    private static long totalSize;
+    
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Render Disk Cache Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private static File getDir(){
+        return new File(Main.dataFolder + "renders");
+    }
+    private static String getEntryName(String fileHash, int page, int width, int rotation){
+        return fileHash + "-" + page + "-" + width + "-" + rotation + ".jpg";
+    }
+    
+    private static void loadEntries(){
+        if(entries != null) return;
+        entries = new LinkedHashMap<>(16, .75f, true);
+        totalSize = 0;
+        getDir().mkdirs();
+    
+        File[] files = getDir().listFiles();
+        if(files == null) return;
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for(File file : files){
+            entries.put(file.getName(), file.length());
+            totalSize += file.length();
+        }
+    }
+    
+    // Returns null if the render is not in the cache.
+    public static BufferedImage read(String fileHash, int page, int width, int rotation){
+        String name = getEntryName(fileHash, page, width, rotation);
+        File file = new File(getDir(), name);
+        synchronized(PageRenderDiskCache.class){
+            loadEntries();
+            if(entries.get(name) == null) return null; // Also updates the access order
+        }
+    
+        try{
+            BufferedImage image = ImageIO.read(file);
+            if(image != null){
+                file.setLastModified(System.currentTimeMillis()); // Keeps the access order for the next sessions
+                return image;
+            }
+        }catch(IOException e){
+            Log.w("Unable to read the page render cache entry " + name + ": " + e.getMessage());
+        }
+        remove(name);
+        return null;
+    }
+    
+    // The image is encoded asynchronously, onWritten is called once the image is no longer used.
+    public static void write(String fileHash, int page, int width, int rotation, BufferedImage image, Runnable onWritten){
+        String name = getEntryName(fileHash, page, width, rotation);
+        writer.execute(() -> {
+            File file = new File(getDir(), name);
+            try{
+                writeJPEG(image, file);
+            }catch(IOException e){
+                Log.w("Unable to write the page render cache entry " + name + ": " + e.getMessage());
+                file.delete();
+                return;
+            }finally{
+                onWritten.run();
+            }
+    
+            synchronized(PageRenderDiskCache.class){
+                loadEntries();
+                Long oldSize = entries.put(name, file.length());
+                totalSize += file.length() - (oldSize == null ? 0 : oldSize);
+    
+                // LRU eviction
+                Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+                while(totalSize > MAX_SIZE && iterator.hasNext()){
+                    Map.Entry<String, Long> eldest = iterator.next();
+                    if(eldest.getKey().equals(name)) continue;
+                    new File(getDir(), eldest.getKey()).delete();
+                    totalSize -= eldest.getValue();
+                    iterator.remove();
+                }
+            }
+        });
+    }
+    
+    private static void writeJPEG(BufferedImage image, File file) throws IOException{
+        // JPEG does not support alpha: draw the render on a RGB image.
+        BufferedImage rgbImage = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgbImage.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        graphics.drawImage(image, 0, 0, null);
+        graphics.dispose();
+    
+        ImageWriter imageWriter = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = imageWriter.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+    
+        getDir().mkdirs();
+        try(ImageOutputStream output = ImageIO.createImageOutputStream(file)){
+            imageWriter.setOutput(output);
+            imageWriter.write(null, new IIOImage(rgbImage, null, null), param);
+        }finally{
+            imageWriter.dispose();
+        }
+    }
+    
+    private static synchronized void remove(String name){
+        loadEntries();
+        Long size = entries.remove(name);
+        if(size != null) totalSize -= size;
+        new File(getDir(), name).delete();
+    }
+    
+    // Deletes all the renders of a file content (called when the file is rewritten).
+    public static void invalidate(String fileHash){
+        writer.execute(() -> {
+            synchronized(PageRenderDiskCache.class){
+                loadEntries();
+                Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+                while(iterator.hasNext()){
+                    Map.Entry<String, Long> entry = iterator.next();
+                    if(entry.getKey().startsWith(fileHash + "-")){
+                        new File(getDir(), entry.getKey()).delete();
+                        totalSize -= entry.getValue();
+                        iterator.remove();
+                    }
+                }
+            }
+        });
+    }
+}
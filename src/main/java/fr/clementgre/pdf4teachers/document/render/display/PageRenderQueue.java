@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document.render.display;
+
+import fr.clementgre.pdf4teachers.utils.interfaces.CallBackArg;
+import javafx.scene.image.Image;
+
+import java.util.HashMap;
+
+// Pending page renders of a document, shared by the render workers of PDFPagesRender.
+// There is at most one request per page (or per tile): a new request for an already queued page replaces it (and keeps its callbacks).
+// take() returns the request of the page that is the nearest of the viewport (previews first when distances are equal).
+public class PageRenderQueue {
+    
+    /**
+     * @param tile The tile of the page to render, or null to render the full page.
+     * @param preview true if this is the quick low resolution render that is displayed while the page is rendering.
+     * @param width The width of the full page render, in pixels.
+     */
+    public record RenderRequest(PageRenderer page, PageTiles.Tile tile, boolean preview, int width, double zoomFactor, CallBackArg<Image> callBack) {
+        private RenderKey getKey(){
+            return new RenderKey(page, tile, preview);
+        }
+    }
+    private record RenderKey(PageRenderer page, PageTiles.Tile tile, boolean preview) {}
+    
+    private static class QueuedRequest {
+        private RenderRequest request;
+        private double distance;
+        private final long order;
+    
+        private QueuedRequest(RenderRequest request, double distance, long order){
+            this.request = request;
+            this.distance = distance;
+            this.order = order;
+        }
+        private boolean isBefore(QueuedRequest other){
+            if(distance != other.distance) return distance < other.distance;
+            if(request.preview() != other.request.preview()) return request.preview();
+            return order < other.order;
+        }
+    }
+    
+    private final HashMap<RenderKey, QueuedRequest> requests = new HashMap<>();
+    private long order;
+    
+    /**
+     * @param distance The distance between the page and the viewport, in pixels (0 if the page is visible).
+     */
+    public synchronized void add(RenderRequest request, double distance){
+        QueuedRequest queued = requests.get(request.getKey());
+        if(queued != null){ // Coalesce with the pending request of this page
+            CallBackArg<Image> oldCallBack = queued.request.callBack();
+            CallBackArg<Image> newCallBack = request.callBack();
+            queued.request = new RenderRequest(request.page(), request.tile(), request.preview(), request.width(), request.zoomFactor(), (image) -> {
+                oldCallBack.call(image);
+                newCallBack.call(image);
+            });
+            queued.distance = distance;
+        }else{
+            requests.put(request.getKey(), new QueuedRequest(request, distance, order++));
+            notify();
+        }
+    }
+    
+    public synchronized void updateDistance(PageRenderer page, double distance){
+        for(QueuedRequest queued : requests.values()){
+            if(queued.request.page() == page) queued.distance = distance;
+        }
+    }
+    
+    // Waits until a request is available, then returns the one with the highest priority.
+    public synchronized RenderRequest take() throws InterruptedException{
+        while(requests.isEmpty()) wait();
+    
+        QueuedRequest best = null;
+        for(QueuedRequest queued : requests.values()){
+            if(best == null || queued.isBefore(best)) best = queued;
+        }
+        requests.remove(best.request.getKey());
+        return best.request;
+    }
+    
+    public synchronized void clear(){
+        requests.clear();
+    }
+    
+    public synchronized int size(){
+        return requests.size();
+    }
+}
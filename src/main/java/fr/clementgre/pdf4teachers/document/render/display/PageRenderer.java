@@ -32,6 +32,7 @@ import fr.clementgre.pdf4teachers.utils.MathUtils;
 import fr.clementgre.pdf4teachers.utils.PlatformUtils;
 import fr.clementgre.pdf4teachers.utils.TextWrapper;
 import fr.clementgre.pdf4teachers.utils.interfaces.CallBack;
+import fr.clementgre.pdf4teachers.utils.interfaces.CallBackArg;
 import javafx.animation.Animation;
 import javafx.animation.KeyFrame;
 import javafx.animation.KeyValue;
@@ -69,7 +70,7 @@ public class PageRenderer extends Pane {
     
     public static Background WHITE_BACKGROUND = new Background(new BackgroundFill(Color.WHITE, CornerRadii.EMPTY, Insets.EMPTY));
     
-    private PageStatus status = PageStatus.HIDE;
+    private volatile PageStatus status = PageStatus.HIDE;
     
     private int page;
     private ArrayList<Element> elements = new ArrayList<>();
@@ -89,6 +90,7 @@ public class PageRenderer extends Pane {
     private PageGridSeparator pageGridSeparatorBefore;
     private PageGridEditPane pageGridEditPane;
     private PageGridNumber pageGridNumber;
+    private final PageTiles tiles = new PageTiles(this);
     
     private GraphicElement placingElement;
     
@@ -803,6 +805,11 @@ public class PageRenderer extends Pane {
         
         int firstTest = getShowStatus();
         switchVisibleStatus(firstTest);
+        if(lastShowStatus == 0) tiles.update();
+        else tiles.clear();
+        if(status == PageStatus.RENDERING){
+            MainWindow.mainScreen.document.pdfPagesRender.updateRenderPriority(this);
+        }
         if(pageEditPane != null){
             pageEditPane.updateVisibility();
         }
@@ -818,16 +825,31 @@ public class PageRenderer extends Pane {
         if(removed) return;
         
         if(lastShowStatus != 0) return; // Verify that the page is visible
+        tiles.updateZoom();
         if(status != PageStatus.RENDERED) return; // Verify that the page is rendered
         
-        if(Math.abs(renderedZoomFactor - getRenderingZoomFactor()) > 0.2){
+        if(isZoomFactorOutdated(renderedZoomFactor, getRenderingZoomFactor())){
             status = PageStatus.RENDERING;
             render(null);
         }
         
     }
+    public static boolean isZoomFactorOutdated(double renderedZoomFactor, double renderingZoomFactor){
+        return Math.abs(renderedZoomFactor - renderingZoomFactor) > 0.2;
+    }
+    
+    // Called when a pending render has been dropped by PDFPagesRender because the zoom changed since the request.
+    public void renderWithCurrentZoom(CallBackArg<Image> callBack){
+        if(removed){
+            callBack.call(null);
+            return;
+        }
+        renderedZoomFactor = getRenderingZoomFactor();
+        MainWindow.mainScreen.document.pdfPagesRender.renderPage(this, renderedZoomFactor, callBack);
+    }
     
     public void removeRender(){
+        Image oldImage = hasRenderedImage() ? getRenderedImage() : null;
         // If we remove the rendered image while the page is not visible, it will leak.
         // That's why we need to make the page visible during the replacing of the background.
         if(!isVisible() && hasRenderedImage()){
@@ -837,9 +859,18 @@ public class PageRenderer extends Pane {
         }else{
             setBackground(WHITE_BACKGROUND);
         }
+        recycleRenderedImage(oldImage);
+        tiles.clear();
+        if(MainWindow.mainScreen.hasDocument(false)) MainWindow.mainScreen.document.pdfPagesRender.getImageCache().remove(this);
         status = PageStatus.HIDE;
     
     }
+    // The image is no longer displayed: its raster can be reused for another render.
+    private void recycleRenderedImage(Image image){
+        if(image instanceof WritableImage writableImage && MainWindow.mainScreen.hasDocument(false)){
+            MainWindow.mainScreen.document.pdfPagesRender.getRasterPool().recycle(writableImage);
+        }
+    }
     
     public void updateRender(){
         removeRender();
@@ -891,24 +922,44 @@ public class PageRenderer extends Pane {
     }
     
     public int getShowStatus(){ // 0 : Visible | 1 : Hide | 2 : Hard Hide
-        int pageHeight = (int) (getHeight() * MainWindow.mainScreen.zoomOperator.getPaneScale());
-        int upDistance = (int) (MainWindow.mainScreen.zoomOperator.getPaneY() - MainWindow.mainScreen.zoomOperator.getPaneShiftY() + getTranslateY() * MainWindow.mainScreen.zoomOperator.getPaneScale() + pageHeight);
-        int downDistance = (int) (MainWindow.mainScreen.zoomOperator.getPaneY() - MainWindow.mainScreen.zoomOperator.getPaneShiftY() + getTranslateY() * MainWindow.mainScreen.zoomOperator.getPaneScale());
+        ViewportPosition position = getViewportPosition();
+        int upDistance = position.upDistance();
+        int downDistance = position.downDistance();
         
         //if((upDistance + pageHeight) > 0 && (downDistance - pageHeight) < MainWindow.mainScreen.getHeight()){ // one page of space
         if((upDistance) > 0 && (downDistance) < MainWindow.mainScreen.getHeight()){ // pil poil
             return 0;
         }else{
-            if((upDistance + pageHeight * 10) < 0 || (downDistance - pageHeight * 10) > MainWindow.mainScreen.getHeight())
+            if((upDistance + position.pageHeight() * 10) < 0 || (downDistance - position.pageHeight() * 10) > MainWindow.mainScreen.getHeight())
                 return 2;
             return 1;
         }
     }
     
+    // Distance in pixels between the page and the viewport of MainScreen, 0 if the page is visible.
+    public double getViewportDistance(){
+        ViewportPosition position = getViewportPosition();
+        
+        if(position.upDistance() <= 0) return -position.upDistance(); // Above the viewport
+        if(position.downDistance() >= MainWindow.mainScreen.getHeight()) return position.downDistance() - MainWindow.mainScreen.getHeight(); // Below the viewport
+        return 0;
+    }
+    
+    // Scaled height of the page, and positions of its bottom (upDistance) and of its top (downDistance) from the top of the viewport, in pixels.
+    private record ViewportPosition(int pageHeight, int upDistance, int downDistance){}
+    private ViewportPosition getViewportPosition(){
+        int pageHeight = (int) (getHeight() * MainWindow.mainScreen.zoomOperator.getPaneScale());
+        int downDistance = (int) (MainWindow.mainScreen.zoomOperator.getPaneY() - MainWindow.mainScreen.zoomOperator.getPaneShiftY() + getTranslateY() * MainWindow.mainScreen.zoomOperator.getPaneScale());
+        return new ViewportPosition(pageHeight, downDistance + pageHeight, downDistance);
+    }
+    
     private void switchVisibleStatus(int showStatus){ // 0 : Visible | 1 : Hide | 2 : Hard Hide
+        boolean becameVisible = lastShowStatus != 0 && showStatus == 0;
         lastShowStatus = showStatus;
         if(showStatus == 0){
             setVisible(true);
+            // A hidden page has no render (never rendered, hard hidden, or evicted from the cache)
+            if(becameVisible) MainWindow.mainScreen.document.pdfPagesRender.getImageCache().touch(this, status != PageStatus.HIDE);
             
             if(status == PageStatus.HIDE){
                 status = PageStatus.RENDERING;
@@ -938,8 +989,10 @@ public class PageRenderer extends Pane {
         }
     }
     
-    private double getRenderingZoomFactor(){
+    public static double getRenderingZoomFactor(){
         if(Main.settings.renderWithZoom.getValue()){
+            // The visible part of the page is rendered in tiles: the full page render is only a low resolution base.
+            if(PageTiles.getTilesZoomFactor() != -1) return PageTiles.TILES_MIN_ZOOM * Main.settings.renderZoom.getValue();
             return Math.min(MainWindow.mainScreen.getZoomFactor(), 3) * Main.settings.renderZoom.getValue();
         }else{
             return 1.5 * Main.settings.renderZoom.getValue();
@@ -950,32 +1003,58 @@ public class PageRenderer extends Pane {
     private void render(CallBack callBack){
         renderedZoomFactor = getRenderingZoomFactor();
         
+        // Nothing is displayed yet: first display a quick low resolution render.
+        if(Main.settings.progressiveRender.getValue() && status == PageStatus.RENDERING && !hasRenderedImage()){
+            MainWindow.mainScreen.document.pdfPagesRender.renderPagePreview(this, (image) -> {
+                if(removed || status != PageStatus.RENDERING || hasRenderedImage()){
+                    if(image instanceof WritableImage writableImage) MainWindow.mainScreen.document.pdfPagesRender.getRasterPool().recycle(writableImage);
+                    return;
+                }
+                if(image == null) return;
+                
+                setRenderedImage(image);
+                loader.setVisible(false);
+            });
+        }
+        
         MainWindow.mainScreen.document.pdfPagesRender.renderPage(this, renderedZoomFactor, (image) -> {
-            if(removed || status == PageStatus.HIDE) return;
-            
+            if(removed) return;
+            if(status == PageStatus.HIDE){ // Hard hidden while rendering, or render dropped
+                if(image instanceof WritableImage writableImage) MainWindow.mainScreen.document.pdfPagesRender.getRasterPool().recycle(writableImage);
+                if(callBack != null) callBack.call();
+                return;
+            }
             if(image == null){
                 status = PageStatus.FAIL;
                 return;
             }
             
-            setBackground(new Background(
-                    Collections.singletonList(new BackgroundFill(
-                            javafx.scene.paint.Color.WHITE,
-                            CornerRadii.EMPTY,
-                            Insets.EMPTY)),
-                    Collections.singletonList(new BackgroundImage(
-                            image,
-                            BackgroundRepeat.NO_REPEAT,
-                            BackgroundRepeat.NO_REPEAT,
-                            BackgroundPosition.CENTER,
-                            new BackgroundSize(getWidth(), getHeight(), false, false, false, true)))));
+            setRenderedImage(image);
             
             setCursor(Cursor.DEFAULT);
             loader.setVisible(false);
             status = PageStatus.RENDERED;
+            if(lastShowStatus == 0) tiles.update(); // Tiles are cleared when the render is removed
             if(callBack != null) callBack.call();
         });
     }
+    // Sets the image as background, the previous image is recycled.
+    private void setRenderedImage(Image image){
+        Image oldImage = hasRenderedImage() ? getRenderedImage() : null;
+        setBackground(new Background(
+                Collections.singletonList(new BackgroundFill(
+                        javafx.scene.paint.Color.WHITE,
+                        CornerRadii.EMPTY,
+                        Insets.EMPTY)),
+                Collections.singletonList(new BackgroundImage(
+                        image,
+                        BackgroundRepeat.NO_REPEAT,
+                        BackgroundRepeat.NO_REPEAT,
+                        BackgroundPosition.CENTER,
+                        new BackgroundSize(getWidth(), getHeight(), false, false, false, true)))));
+        if(oldImage != image) recycleRenderedImage(oldImage);
+        MainWindow.mainScreen.document.pdfPagesRender.getImageCache().put(this, image);
+    }
     
     // COORDINATES
     
@@ -1032,6 +1111,8 @@ public class PageRenderer extends Pane {
             
             page.elements.add(element);
             if(!page.getChildren().contains(element)) page.getChildren().add(element);
+            Edition.invalidatePage(this);
+            Edition.invalidatePage(page);
         }
     }
     
@@ -1043,8 +1124,8 @@ public class PageRenderer extends Pane {
             getChildren().add(element);
             
             if(markAsUnsave){
-                Edition.setUnsave("PageRenderer ElementAdded");
-            }
+                Edition.setUnsave("PageRenderer ElementAdded", this);
+            }else Edition.invalidatePage(this);
             element.addedToDocument(markAsUnsave);
             MainWindow.mainScreen.registerNewAction(new CreateDeleteUndoAction(element, false, undoType));
         }
@@ -1056,7 +1137,8 @@ public class PageRenderer extends Pane {
             elements.remove(element);
             getChildren().remove(element);
             
-            if(markAsUnsave) Edition.setUnsave("PageRenderer ElementRemoved");
+            if(markAsUnsave) Edition.setUnsave("PageRenderer ElementRemoved", this);
+            else Edition.invalidatePage(this);
             element.removedFromDocument(markAsUnsave);
             
             MainWindow.mainScreen.registerNewAction(new CreateDeleteUndoAction(element, true, undoType));
@@ -1115,7 +1197,7 @@ public class PageRenderer extends Pane {
     public void updateElementsPage(){
         for(Element element : elements){
             element.setPage(page);
-            Edition.setUnsave("PageRenderer updateElementsPage()");
+            Edition.setUnsave("PageRenderer updateElementsPage()", this);
         }
     }
     
@@ -1123,6 +1205,15 @@ public class PageRenderer extends Pane {
         return elements;
     }
     
+    public boolean isInViewport(){
+        return lastShowStatus == 0;
+    }
+    public PageTiles getTiles(){
+        return tiles;
+    }
+    public PageStatus getStatus(){
+        return status;
+    }
     public void setStatus(PageStatus status){
         this.status = status;
     }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2023. Clément Grennerat
+ * All rights reserved. You must refer to the licence Apache 2.
+ */
+
+package fr.clementgre.pdf4teachers.document.render.display;
+
+import fr.clementgre.pdf4teachers.Main;
+import fr.clementgre.pdf4teachers.interfaces.windows.MainWindow;
+import javafx.geometry.Bounds;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Pane;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// High zoom rendering of a page: the page is split in tiles of TILE_SIZE pixels at the current zoom,
+// and only the tiles that are visible are rendered. They are displayed over the low resolution
+// background image of the page (rendered with PageRenderer.getRenderingZoomFactor()).
+public class PageTiles {
+    
+    public static final int TILE_SIZE = 512;
+    // Tiles are used only above this zoom, the full page render is then done at this zoom.
+    public static final double TILES_MIN_ZOOM = 2;
+    public static final double TILES_MAX_ZOOM = 8;
+    
+    /**
+     * Coordinates and size of a tile, in pixels, in the full page render of width renderWidth.
+     */
+    public record Tile(int col, int row, int x, int y, int width, int height, int renderWidth) {}
+    
+    private final PageRenderer page;
+    private final Pane pane = new Pane();
+    
+    private final HashMap<Tile, ImageView> renderedTiles = new HashMap<>();
+    // Tiles rendered or being rendered. Read by the render workers to drop outdated requests.
+    private final Set<Tile> wantedTiles = ConcurrentHashMap.newKeySet();
+    private volatile double zoomFactor = -1;
+    
+    public PageTiles(PageRenderer page){
+        this.page = page;
+        pane.setMouseTransparent(true);
+        pane.setManaged(false);
+    }
+    
+    // -1 if the tiles are disabled
+    public static double getTilesZoomFactor(){
+        if(!Main.settings.renderTiles.getValue() || !Main.settings.renderWithZoom.getValue()) return -1;
+    
+        double zoom = MainWindow.mainScreen.getZoomFactor();
+        if(zoom <= TILES_MIN_ZOOM) return -1;
+        return Math.min(zoom, TILES_MAX_ZOOM) * Main.settings.renderZoom.getValue();
+    }
+    
+    // Called once the zoom is stable: replaces the tiles by tiles of the new zoom.
+    public void updateZoom(){
+        if(getTilesZoomFactor() == zoomFactor) return;
+        clear();
+        update();
+    }
+    
+    // Requests the render of the visible tiles and removes the tiles that are no longer visible.
+    public void update(){
+        double newZoomFactor = getTilesZoomFactor();
+        // While zooming, the current tiles are kept (they are scaled with the page) until updateZoom() is called.
+        if(newZoomFactor != zoomFactor && wantedTiles.isEmpty()) zoomFactor = newZoomFactor;
+        if(zoomFactor == -1 || newZoomFactor != zoomFactor || page.getWidth() <= 0) return;
+    
+        int renderWidth = (int) Math.max(1, 595 * 1.4 * zoomFactor);
+        int renderHeight = (int) Math.max(1, renderWidth * page.getHeight() / page.getWidth());
+        double pixelsPerUnit = renderWidth / page.getWidth();
+    
+        // Viewport of MainScreen in the page coordinates
+        Bounds viewport = page.sceneToLocal(MainWindow.mainScreen.localToScene(MainWindow.mainScreen.getLayoutBounds()));
+        int minCol = Math.max(0, (int) (viewport.getMinX() * pixelsPerUnit / TILE_SIZE));
+        int minRow = Math.max(0, (int) (viewport.getMinY() * pixelsPerUnit / TILE_SIZE));
+        int maxCol = Math.min((renderWidth - 1) / TILE_SIZE, (int) (viewport.getMaxX() * pixelsPerUnit / TILE_SIZE));
+        int maxRow = Math.min((renderHeight - 1) / TILE_SIZE, (int) (viewport.getMaxY() * pixelsPerUnit / TILE_SIZE));
+    
+        // Remove tiles that are out of the viewport
+        wantedTiles.removeIf(tile -> tile.col() < minCol || tile.col() > maxCol || tile.row() < minRow || tile.row() > maxRow);
+        renderedTiles.entrySet().removeIf(entry -> {
+            if(wantedTiles.contains(entry.getKey())) return false;
+            removeTileView(entry.getValue());
+            return true;
+        });
+    
+        for(int col = minCol; col <= maxCol; col++){
+            for(int row = minRow; row <= maxRow; row++){
+                int x = col * TILE_SIZE;
+                int y = row * TILE_SIZE;
+                Tile tile = new Tile(col, row, x, y, Math.min(TILE_SIZE, renderWidth - x), Math.min(TILE_SIZE, renderHeight - y), renderWidth);
+                if(wantedTiles.add(tile)) requestTile(tile, pixelsPerUnit);
+            }
+        }
+    
+        if(!page.getChildren().contains(pane)) page.getChildren().add(0, pane);
+    }
+    
+    private void requestTile(Tile tile, double pixelsPerUnit){
+        MainWindow.mainScreen.document.pdfPagesRender.renderTile(page, zoomFactor, tile, (image) -> {
+            if(image == null || page.isRemoved() || !wantedTiles.contains(tile) || renderedTiles.containsKey(tile)){
+                if(image instanceof WritableImage writableImage) MainWindow.mainScreen.document.pdfPagesRender.getRasterPool().recycle(writableImage);
+                return;
+            }
+            ImageView view = new ImageView(image);
+            view.setSmooth(true);
+            view.setLayoutX(tile.x() / pixelsPerUnit);
+            view.setLayoutY(tile.y() / pixelsPerUnit);
+            view.setFitWidth(tile.width() / pixelsPerUnit);
+            view.setFitHeight(tile.height() / pixelsPerUnit);
+            renderedTiles.put(tile, view);
+            pane.getChildren().add(view);
+        });
+    }
+    
+    // Called by the render workers
+    public boolean isOutdated(Tile tile, double zoomFactor){
+        return zoomFactor != this.zoomFactor || !wantedTiles.contains(tile);
+    }
+    
+    public void clear(){
+        wantedTiles.clear();
+        for(Map.Entry<Tile, ImageView> entry : renderedTiles.entrySet()) removeTileView(entry.getValue());
+        renderedTiles.clear();
+    }
+    private void removeTileView(ImageView view){
+        pane.getChildren().remove(view);
+        if(view.getImage() instanceof WritableImage writableImage && MainWindow.mainScreen.hasDocument(false)){
+            MainWindow.mainScreen.document.pdfPagesRender.getRasterPool().recycle(writableImage);
+        }
+        view.setImage(null);
+    }
+}
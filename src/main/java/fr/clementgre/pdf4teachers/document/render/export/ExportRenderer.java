@@ -5,126 +5,145 @@
 
 package fr.clementgre.pdf4teachers.document.render.export;
 
+import fr.clementgre.pdf4teachers.Main;
 import fr.clementgre.pdf4teachers.document.editions.Edition;
+import fr.clementgre.pdf4teachers.document.editions.data.*;
 import fr.clementgre.pdf4teachers.document.editions.elements.*;
+import fr.clementgre.pdf4teachers.document.render.PDFMemoryUsage;
 import fr.clementgre.pdf4teachers.interfaces.windows.language.TR;
 import fr.clementgre.pdf4teachers.utils.dialogs.alerts.ErrorAlert;
 import javafx.scene.paint.Color;
-import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
-import org.apache.pdfbox.pdmodel.common.PDStream;
 import org.apache.pdfbox.pdmodel.graphics.color.PDColor;
 import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceRGB;
 import org.apache.pdfbox.util.Matrix;
 
 import java.awt.geom.Point2D;
 import java.io.File;
-import java.io.FileInputStream;
 import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
+// Each call of exportFile() uses its own PDDocument and renderers: several documents can be exported in parallel (see ExportWindow).
 public class ExportRenderer {
     
+    // The elements are created one document at a time: they use JavaFX nodes, and their creation is not meant to be concurrent.
+    private static final Object ELEMENTS_LOCK = new Object();
+    
     public boolean exportFile(File pdfFile, File toFile, int imagesDPI, boolean textElements, boolean gradesElements, boolean drawElements, boolean skillElements) throws Exception{
         
         File editFile = Edition.getEditFile(pdfFile);
         
-        PDDocument doc = PDDocument.load(pdfFile);
-        
-        if(doc.isEncrypted()){
-            try{
-                doc.setAllSecurityToBeRemoved(true);
-            }catch(Exception e){
-                doc.close();
-                throw new Exception("The document is encrypted, and we can't decrypt it.", e);
-            }
-        }
-        
-        new PDStream(doc, new FileInputStream(pdfFile), COSName.FLATE_DECODE);
-        doc.getDocumentInformation().setModificationDate(Calendar.getInstance());
-        
-        TextRenderer textRenderer = new TextRenderer(doc);
-        TextElementRenderer textElementRenderer = new TextElementRenderer(doc, textRenderer);
-        GradeElementRenderer gradeElementRenderer = new GradeElementRenderer(doc, textRenderer);
-        ImageElementRenderer imageElementRenderer = new ImageElementRenderer(doc, imagesDPI);
-        VectorElementRenderer vectorElementRenderer = new VectorElementRenderer(doc);
-        SkillTableElementRenderer skillTableElementRenderer = new SkillTableElementRenderer(doc, textRenderer, imagesDPI);
-        
-        Element[] elements = Edition.simpleLoad(editFile);
-        for(int pageNumber = 0; pageNumber < doc.getNumberOfPages(); pageNumber++){
-            
-            PDPage page = doc.getPage(pageNumber);
-            PDPageContentStream contentStream = new PDPageContentStream(doc, page, PDPageContentStream.AppendMode.APPEND, true, true);
-            page.setBleedBox(page.getCropBox());
+        try(PDDocument doc = PDDocument.load(pdfFile, PDFMemoryUsage.get(pdfFile.length(), Main.settings.exportWorkers.getValue()))){
             
-            float startX = page.getBleedBox().getLowerLeftX();
-            float startY = page.getBleedBox().getLowerLeftY();
-            float pageRealHeight = page.getBleedBox().getHeight();
-            float pageRealWidth = page.getBleedBox().getWidth();
-            float pageHeight = page.getCropBox().getHeight();
-            float pageWidth = page.getCropBox().getWidth();
-            // ROTATE PAGES ADAPT
-            if(page.getRotation() == 90 || page.getRotation() == 270){
-                startY = page.getBleedBox().getLowerLeftX();
-                startX = page.getBleedBox().getLowerLeftY();
-                
-                pageRealHeight = page.getBleedBox().getWidth();
-                pageRealWidth = page.getBleedBox().getHeight();
-                
-                pageHeight = page.getCropBox().getWidth();
-                pageWidth = page.getCropBox().getHeight();
+            if(doc.isEncrypted()){
+                try{
+                    doc.setAllSecurityToBeRemoved(true);
+                }catch(Exception e){
+                    throw new Exception("The document is encrypted, and we can't decrypt it.", e);
+                }
             }
-    
             
+            doc.getDocumentInformation().setModificationDate(Calendar.getInstance());
             
-            // ROTATE PAGES ADAPT
-            Matrix rotation = Matrix.getRotateInstance(0, 0, 0);
-            if(page.getRotation() % 90 == 0){
-                switch((page.getRotation() / 90) % 4){
-                    case 1 -> rotation = Matrix.getRotateInstance(Math.toRadians(page.getRotation()), pageRealHeight, 0);
-                    case 2 -> rotation = Matrix.getRotateInstance(Math.toRadians(page.getRotation()), pageRealWidth, pageRealHeight);
-                    case 3 -> rotation = Matrix.getRotateInstance(Math.toRadians(page.getRotation()), 0, pageRealWidth);
-                }
+            TextRenderer textRenderer = new TextRenderer(doc);
+            TextElementRenderer textElementRenderer = new TextElementRenderer(doc, textRenderer);
+            GradeElementRenderer gradeElementRenderer = new GradeElementRenderer(doc, textRenderer);
+            ImageElementRenderer imageElementRenderer = new ImageElementRenderer(doc, imagesDPI);
+            VectorElementRenderer vectorElementRenderer = new VectorElementRenderer(doc);
+            SkillTableElementRenderer skillTableElementRenderer = new SkillTableElementRenderer(doc, textRenderer, imagesDPI);
+            
+            // Only the exported elements are created (text layouts need JavaFX nodes), hidden grades are skipped from the data.
+            EditionData edition = EditionData.load(editFile);
+            Map<Integer, List<Element>> elementsByPage;
+            synchronized(ELEMENTS_LOCK){
+                elementsByPage = edition.stream()
+                        .filter(data -> isExported(data, textElements, gradesElements, drawElements, skillElements))
+                        .map(data -> data.toElement(false))
+                        .collect(Collectors.groupingBy(Element::getPageNumber));
             }
-            contentStream.transform(rotation);
-            PageSpecs pageSpecs = new PageSpecs(pageWidth, pageHeight, pageRealWidth, pageRealHeight, startX, startY, rotation);
             
-            for(Element element : elements){
-                
-                if(element.getPageNumber() != pageNumber) continue;
+            for(int pageNumber = 0; pageNumber < doc.getNumberOfPages(); pageNumber++){
                 
-                if(element instanceof TextElement tElement){
-                    if(textElements)
-                        if(!textElementRenderer.renderElement(tElement, contentStream, page, pageSpecs)){
-                            doc.close(); return false;
+                PDPage page = doc.getPage(pageNumber);
+                try(PDPageContentStream contentStream = new PDPageContentStream(doc, page, PDPageContentStream.AppendMode.APPEND, true, true)){
+                    page.setBleedBox(page.getCropBox());
+                    
+                    float startX = page.getBleedBox().getLowerLeftX();
+                    float startY = page.getBleedBox().getLowerLeftY();
+                    float pageRealHeight = page.getBleedBox().getHeight();
+                    float pageRealWidth = page.getBleedBox().getWidth();
+                    float pageHeight = page.getCropBox().getHeight();
+                    float pageWidth = page.getCropBox().getWidth();
+                    // ROTATE PAGES ADAPT
+                    if(page.getRotation() == 90 || page.getRotation() == 270){
+                        startY = page.getBleedBox().getLowerLeftX();
+                        startX = page.getBleedBox().getLowerLeftY();
+                        
+                        pageRealHeight = page.getBleedBox().getWidth();
+                        pageRealWidth = page.getBleedBox().getHeight();
+                        
+                        pageHeight = page.getCropBox().getWidth();
+                        pageWidth = page.getCropBox().getHeight();
+                    }
+                    
+                    
+                    
+                    // ROTATE PAGES ADAPT
+                    Matrix rotation = Matrix.getRotateInstance(0, 0, 0);
+                    if(page.getRotation() % 90 == 0){
+                        switch((page.getRotation() / 90) % 4){
+                            case 1 -> rotation = Matrix.getRotateInstance(Math.toRadians(page.getRotation()), pageRealHeight, 0);
+                            case 2 -> rotation = Matrix.getRotateInstance(Math.toRadians(page.getRotation()), pageRealWidth, pageRealHeight);
+                            case 3 -> rotation = Matrix.getRotateInstance(Math.toRadians(page.getRotation()), 0, pageRealWidth);
                         }
-                }else if(element instanceof GradeElement gElement){
-                    if(gradesElements)
-                        if(!gradeElementRenderer.renderElement(gElement, contentStream, page, pageSpecs)){
-                            doc.close(); return false;
-                        }
-                }else if(element instanceof ImageElement gElement){
-                    if(drawElements)
-                        imageElementRenderer.renderElement(gElement, contentStream, page, pageWidth, pageHeight, pageRealWidth, pageRealHeight, startX, startY);
-                }else if(element instanceof VectorElement gElement){
-                    if(drawElements)
-                        vectorElementRenderer.renderElement(gElement, contentStream, page, pageWidth, pageHeight, pageRealWidth, pageRealHeight, startX, startY);
-                }else if(element instanceof SkillTableElement gElement){
-                    if(skillElements)
-                        if(!skillTableElementRenderer.renderElement(gElement, contentStream, page, pageSpecs)){
-                            doc.close(); return false;
+                    }
+                    contentStream.transform(rotation);
+                    PageSpecs pageSpecs = new PageSpecs(pageWidth, pageHeight, pageRealWidth, pageRealHeight, startX, startY, rotation);
+                    
+                    for(Element element : elementsByPage.getOrDefault(pageNumber, List.of())){
+                        
+                        if(element instanceof TextElement tElement){
+                            if(textElements)
+                                if(!textElementRenderer.renderElement(tElement, contentStream, page, pageSpecs)){
+                                    return false;
+                                }
+                        }else if(element instanceof GradeElement gElement){
+                            if(gradesElements)
+                                if(!gradeElementRenderer.renderElement(gElement, contentStream, page, pageSpecs)){
+                                    return false;
+                                }
+                        }else if(element instanceof ImageElement gElement){
+                            if(drawElements)
+                                imageElementRenderer.renderElement(gElement, contentStream, page, pageWidth, pageHeight, pageRealWidth, pageRealHeight, startX, startY);
+                        }else if(element instanceof VectorElement gElement){
+                            if(drawElements)
+                                vectorElementRenderer.renderElement(gElement, contentStream, page, pageWidth, pageHeight, pageRealWidth, pageRealHeight, startX, startY);
+                        }else if(element instanceof SkillTableElement gElement){
+                            if(skillElements)
+                                if(!skillTableElementRenderer.renderElement(gElement, contentStream, page, pageSpecs)){
+                                    return false;
+                                }
                         }
+                    }
                 }
             }
             
-            contentStream.close();
+            doc.save(toFile);
+            return true;
         }
-        
-        doc.save(toFile);
-        doc.close();
-        return true;
+    }
+    
+    private static boolean isExported(ElementData data, boolean textElements, boolean gradesElements, boolean drawElements, boolean skillElements){
+        if(data instanceof TextElementData) return textElements;
+        if(data instanceof GradeElementData grade) return gradesElements && grade.isShouldVisibleOnExport();
+        if(data instanceof ImageElementData || data instanceof VectorElementData) return drawElements;
+        if(data instanceof SkillTableElementData skillTable) return skillElements && skillTable.hasAssessment();
+        return false;
     }
     
     public static PDColor toPDColor(Color color){
@@ -32,6 +32,7 @@ import java.io.File;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ExportWindow extends AlternativeWindow<VBox> {
     
@@ -252,7 +253,8 @@ public class ExportWindow extends AlternativeWindow<VBox> {
         directory.mkdirs();
         
         AlreadyExistDialogManager alreadyExistDialogManager = new AlreadyExistDialogManager(customName.isEmpty());
-        new TwoStepListAction<>(true, customName.isEmpty(), new TwoStepListInterface<File, Map.Entry<File, File>>() {
+        AtomicBoolean errorStopped = new AtomicBoolean(false);
+        new TwoStepListAction<>(Main.settings.exportWorkers.getValue(), customName.isEmpty(), new TwoStepListInterface<File, Map.Entry<File, File>>() {
             @Override
             public List<File> prepare(boolean recursive){
                 return files;
@@ -305,13 +307,20 @@ public class ExportWindow extends AlternativeWindow<VBox> {
                     else return TwoStepListAction.ProcessResult.SKIPPED;
                 }catch(Exception e){
                     Log.e(e);
-                    if(PlatformUtils.runAndWait(() -> new ErrorAlert(TR.tr("exportWindow.dialogs.exportError.header", data.getKey().getName()), e.getMessage(), recursive).execute())){
-                        return TwoStepListAction.ProcessResult.STOP;
+                    // Documents are exported in parallel: errors are reported one at a time, and no more once the user chose to stop.
+                    synchronized(errorStopped){
+                        if(errorStopped.get()) return TwoStepListAction.ProcessResult.SKIPPED;
+                        
+                        if(PlatformUtils.runAndWait(() -> new ErrorAlert(TR.tr("exportWindow.dialogs.exportError.header", data.getKey().getName()), e.getMessage(), recursive).execute())){
+                            errorStopped.set(true);
+                            return TwoStepListAction.ProcessResult.STOP;
+                        }
+                        if(!recursive){
+                            errorStopped.set(true);
+                            return TwoStepListAction.ProcessResult.STOP_WITHOUT_ALERT;
+                        }
+                        return TwoStepListAction.ProcessResult.SKIPPED;
                     }
-                    if(!recursive){
-                        return TwoStepListAction.ProcessResult.STOP_WITHOUT_ALERT;
-                    }
-                    return TwoStepListAction.ProcessResult.SKIPPED;
                 }
             }
             
@@ -8,24 +8,39 @@ package fr.clementgre.pdf4teachers.document.render.export;
 import fr.clementgre.pdf4teachers.document.editions.elements.Element;
 import fr.clementgre.pdf4teachers.document.editions.elements.GraphicElement;
 import fr.clementgre.pdf4teachers.document.editions.elements.ImageElement;
+import fr.clementgre.pdf4teachers.interfaces.windows.log.Log;
 import fr.clementgre.pdf4teachers.utils.DPIManager;
+import fr.clementgre.pdf4teachers.utils.image.ExifUtils;
 import javafx.embed.swing.SwingFXUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Iterator;
 
 public class ImageElementRenderer {
     
     private final PDDocument doc;
     private final DPIManager dpiManager;
     
+    // The XObjects of the images already drawn in the document: an image drawn several times with the same size
+    // (a logo on every page...) is rendered and embedded only once, each drawing refers to the same XObject.
+    private final HashMap<ImageKey, PDImageXObject> xObjects = new HashMap<>();
+    private record ImageKey(String imageId, int width, int height, GraphicElement.RepeatMode repeatMode){}
+    
     public ImageElementRenderer(PDDocument doc, int dpi){
         this.doc = doc;
         dpiManager = new DPIManager(dpi);
@@ -35,16 +50,69 @@ public class ImageElementRenderer {
         
         dpiManager.initOneCmWidthFromA4Width(pageWidth);
         
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        int showWidth = dpiManager.getPixelsLength(element.getRealWidth() / Element.GRID_WIDTH * pageWidth);
+        int showHeight = dpiManager.getPixelsLength(element.getRealHeight() / Element.GRID_HEIGHT * pageHeight);
+        
+        ImageKey key = new ImageKey(element.getImageId(), showWidth, showHeight, element.getRepeatMode());
+        PDImageXObject pdImage = xObjects.get(key);
+        if(pdImage == null){
+            pdImage = getOriginalJPEG(element, showWidth, showHeight);
+            if(pdImage == null){
+                BufferedImage image = renderImage(element, showWidth, showHeight);
+                if(image == null) return;
+                pdImage = LosslessFactory.createFromImage(doc, image);
+            }
+            xObjects.put(key, pdImage);
+        }
+        
+        float bottomMargin = pageRealHeight - pageHeight - startY;
+        contentStream.drawImage(pdImage,
+                startX + element.getRealX() / Element.GRID_WIDTH * pageWidth,
+                bottomMargin + pageRealHeight - (element.getRealHeight() / Element.GRID_HEIGHT * pageHeight) - element.getRealY() / Element.GRID_HEIGHT * pageHeight,
+                element.getRealWidth() / Element.GRID_WIDTH * pageWidth,
+                element.getRealHeight() / Element.GRID_HEIGHT * pageHeight);
+        
+    }
+    
+    // A JPEG file that is stretched, not rotated, and not larger than the drawn size is embedded as it is (DCT encoded):
+    // rendering it would only upscale it. Returns null if the image has to be rendered.
+    private PDImageXObject getOriginalJPEG(ImageElement element, int showWidth, int showHeight){
+        if(element.getRepeatMode() == GraphicElement.RepeatMode.MULTIPLY || element.getRepeatMode() == GraphicElement.RepeatMode.CROP) return null;
+        
+        File file = new File(element.getImageId());
+        String name = file.getName().toLowerCase();
+        if(!(name.endsWith(".jpg") || name.endsWith(".jpeg")) || !file.isFile()) return null;
+        
+        try{
+            if(new ExifUtils(file).getImageExifRotation().getRotateAngle() != 0) return null;
+            
+            try(ImageInputStream input = ImageIO.createImageInputStream(file)){
+                Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+                if(!readers.hasNext()) return null;
+                ImageReader reader = readers.next();
+                try{
+                    reader.setInput(input);
+                    if(reader.getWidth(0) > showWidth || reader.getHeight(0) > showHeight) return null;
+                }finally{
+                    reader.dispose();
+                }
+            }
+            try(InputStream data = new FileInputStream(file)){
+                return JPEGFactory.createFromStream(doc, data);
+            }
+        }catch(Exception e){
+            Log.w("Unable to embed the JPEG image " + file.getName() + " as it is, it will be rendered: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    private BufferedImage renderImage(ImageElement element, int showWidth, int showHeight){
         BufferedImage image;
         
         if(element.getRepeatMode() == GraphicElement.RepeatMode.MULTIPLY || element.getRepeatMode() == GraphicElement.RepeatMode.CROP){
             
-            int showWidth = dpiManager.getPixelsLength(element.getRealWidth() / Element.GRID_WIDTH * pageWidth);
-            int showHeight = dpiManager.getPixelsLength(element.getRealHeight() / Element.GRID_HEIGHT * pageHeight);
-            
             javafx.scene.image.Image fxImage = element.renderImage(0, 0);
-            if(fxImage == null) return;
+            if(fxImage == null) return null;
             image = SwingFXUtils.fromFXImage(fxImage, null);
             double imageRatio = ((double) image.getWidth()) / image.getHeight();
             
@@ -66,26 +134,11 @@ public class ImageElementRenderer {
             }
             
         }else{ // Stretch
-            javafx.scene.image.Image fxImage = element.renderImage(
-                    dpiManager.getPixelsLength(element.getRealWidth() / Element.GRID_WIDTH * pageWidth),
-                    dpiManager.getPixelsLength(element.getRealHeight() / Element.GRID_HEIGHT * pageHeight)
-            );
-            if(fxImage == null) return;
+            javafx.scene.image.Image fxImage = element.renderImage(showWidth, showHeight);
+            if(fxImage == null) return null;
             image = SwingFXUtils.fromFXImage(fxImage, null);
         }
-        
-        ImageIO.write(image, "png", bos);
-        byte[] data = bos.toByteArray();
-        
-        PDImageXObject pdImage = PDImageXObject.createFromByteArray(doc, data, element.getImageId());
-        
-        float bottomMargin = pageRealHeight - pageHeight - startY;
-        contentStream.drawImage(pdImage,
-                startX + element.getRealX() / Element.GRID_WIDTH * pageWidth,
-                bottomMargin + pageRealHeight - (element.getRealHeight() / Element.GRID_HEIGHT * pageHeight) - element.getRealY() / Element.GRID_HEIGHT * pageHeight,
-                element.getRealWidth() / Element.GRID_WIDTH * pageWidth,
-                element.getRealHeight() / Element.GRID_HEIGHT * pageHeight);
-        
+        return image;
     }
     
     private BufferedImage multiplyImage(BufferedImage image, boolean horizontal, int width, int height, double ratio){
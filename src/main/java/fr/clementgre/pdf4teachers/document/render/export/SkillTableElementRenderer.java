@@ -26,12 +26,11 @@ import javafx.scene.text.TextBoundsType;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
@@ -176,10 +175,7 @@ public class SkillTableElementRenderer{
     
     private void drawImage(Image image, float x, float y, float width, float height) throws IOException{
         BufferedImage bImg = SwingFXUtils.fromFXImage(image, null);
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        ImageIO.write(bImg, "png", bos);
-        byte[] data = bos.toByteArray();
-        PDImageXObject pdImage = PDImageXObject.createFromByteArray(doc, data, "SkillTableElementRenderer image");
+        PDImageXObject pdImage = LosslessFactory.createFromImage(doc, bImg);
         
         cs.drawImage(pdImage, innerXToPD(x), innerYToPD(y+height), innerWToPD(width), innerHToPD(height));
     }
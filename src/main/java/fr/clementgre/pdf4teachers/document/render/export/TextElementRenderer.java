@@ -9,10 +9,9 @@ import fr.clementgre.pdf4teachers.document.editions.elements.TextElement;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 
-import javax.imageio.ImageIO;
-import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.Map;
@@ -26,11 +25,7 @@ public record TextElementRenderer(PDDocument doc, TextRenderer textRenderer) {
         
         if(element.isMath()){
             
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            ImageIO.write(element.renderAwtLatex(), "png", bos);
-            byte[] data = bos.toByteArray();
-            
-            PDImageXObject pdImage = PDImageXObject.createFromByteArray(doc, data, element.getLaTeXText());
+            PDImageXObject pdImage = LosslessFactory.createFromImage(doc, element.renderAwtLatex());
             
             
             cs.drawImage(pdImage,
@@ -63,11 +63,14 @@ public class TextRenderer {
                 if(Log.doDebug()) Log.eNotified(e);
                 // A character isn't supported by the current font
                 
-                boolean cancel = PlatformUtils.runAndWait(() -> {
-                    ErrorAlert alert = new ErrorAlert(TR.tr("export.missingGlyphError.header", fontEntry.getKey()), e.getMessage(), true);
-                    alert.setContentText(TR.tr("export.missingGlyphError.description", line));
-                    return alert.getShowAndWaitIsCancelButton();
-                });
+                boolean cancel;
+                synchronized(TextRenderer.class){ // Documents can be exported in parallel: one alert at a time
+                    cancel = PlatformUtils.runAndWait(() -> {
+                        ErrorAlert alert = new ErrorAlert(TR.tr("export.missingGlyphError.header", fontEntry.getKey()), e.getMessage(), true);
+                        alert.setContentText(TR.tr("export.missingGlyphError.description", line));
+                        return alert.getShowAndWaitIsCancelButton();
+                    });
+                }
                 if(cancel){
                     cs.endText();
                     return false;
@@ -7,6 +7,10 @@ package fr.clementgre.pdf4teachers.interfaces.windows;
 
 import fr.clementgre.pdf4teachers.Main;
 import fr.clementgre.pdf4teachers.datasaving.UserData;
+import fr.clementgre.pdf4teachers.datasaving.simpleconfigs.DocumentViewStatesData;
+import fr.clementgre.pdf4teachers.datasaving.simpleconfigs.EditionIndexData;
+import fr.clementgre.pdf4teachers.datasaving.simpleconfigs.EditionNamesData;
+import fr.clementgre.pdf4teachers.document.editions.EditionFiles;
 import fr.clementgre.pdf4teachers.document.render.convert.ConvertWindow;
 import fr.clementgre.pdf4teachers.interfaces.AutoHideNotificationPane;
 import fr.clementgre.pdf4teachers.interfaces.KeyboardShortcuts;
@@ -110,6 +114,9 @@ public class MainWindow extends Stage {
     
         userData.save();
         if(!mainScreen.closeFile(!Main.settings.autoSave.getValue(), false)) return false;
+        userData.getSimpleConfig(DocumentViewStatesData.class).saveData(); // Contains the view state of the closed document
+        userData.getSimpleConfig(EditionIndexData.class).saveData(); // Contains the summary of the last saved edition
+        userData.getSimpleConfig(EditionNamesData.class).saveData();
         
         // At this point, it is sure the app will close.
         LockManager.onCloseApp();
@@ -189,6 +196,9 @@ public class MainWindow extends Stage {
         //      LOAD TABS
         SideBar.loadBarsOrganization();
         
+        //      MIGRATE EDIT FILES
+        EditionFiles.migrateInBackground();
+        
         //      CHECK UPDATES
         new Thread(() -> {
             userData = new UserData();
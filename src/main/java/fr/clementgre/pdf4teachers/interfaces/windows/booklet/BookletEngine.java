@@ -43,8 +43,14 @@ public record BookletEngine(boolean makeBooklet, boolean reorganisePages, boolea
             FilesUtils.copyFileUsingStream(document.getFile().toPath(), target.toPath());
         }
         
-        if(!makeBooklet) disassemble(document);
-        else assemble(document);
+        // The pages of the document are edited directly: the render workers must wait.
+        document.pdfPagesRender.editor.getDocumentLock().writeLock().lock();
+        try{
+            if(!makeBooklet) disassemble(document);
+            else assemble(document);
+        }finally{
+            document.pdfPagesRender.editor.getDocumentLock().writeLock().unlock();
+        }
     }
     
     private record MergedPage(PDPage newPage, PageRenderer left, PageRenderer right){}
@@ -7,7 +7,9 @@ package fr.clementgre.pdf4teachers.panel.MainScreen;
 
 import fr.clementgre.pdf4teachers.Main;
 import fr.clementgre.pdf4teachers.document.Document;
+import fr.clementgre.pdf4teachers.document.DocumentViewStates;
 import fr.clementgre.pdf4teachers.document.editions.Edition;
+import fr.clementgre.pdf4teachers.document.editions.EditionSaver;
 import fr.clementgre.pdf4teachers.document.editions.elements.Element;
 import fr.clementgre.pdf4teachers.document.editions.elements.GraphicElement;
 import fr.clementgre.pdf4teachers.document.editions.elements.TextElement;
@@ -212,6 +214,10 @@ public class MainScreen extends Pane {
         
         updateTheme();
         Main.settings.darkTheme.valueProperty().addListener((observable, oldValue, newValue) -> updateTheme());
+        // The rendering zoom factor depends on these settings
+        Main.settings.renderZoom.valueProperty().addListener((observable, oldValue, newValue) -> updateRenderZoom());
+        Main.settings.renderWithZoom.valueProperty().addListener((observable, oldValue, newValue) -> updateRenderZoom());
+        Main.settings.renderTiles.valueProperty().addListener((observable, oldValue, newValue) -> updateRenderZoom());
         
         
         pane.setBorder(Border.EMPTY);
@@ -262,6 +268,7 @@ public class MainScreen extends Pane {
                     if(System.currentTimeMillis() - lastScaleChangedMs >= 95){
                         lastScaleChangedMs = Long.MAX_VALUE; // Prevent other events to update zoom.
                         if(document != null){
+                            document.updateRenderingZoomFactor();
                             document.updateShowsStatus();
                             document.updateZoom();
                         }
@@ -500,6 +507,11 @@ public class MainScreen extends Pane {
         
     }
     
+    // The visible pages are rendered again with the new rendering zoom factor.
+    private void updateRenderZoom(){
+        if(hasDocument(false) && document != null) document.updateZoom();
+    }
+    
     private void updateTheme(){
         if(Main.settings.darkTheme.getValue()){ // Dark theme
             setStyle("-fx-padding: 0; -fx-background-color: #3a3a3e;");
@@ -567,8 +579,11 @@ public class MainScreen extends Pane {
             MainWindow.filesTab.files.getSelectionModel().select(file);
             
             // Zoom #1. If had opened file, keep same zoom factor (must be done before document.loadEdition that puts the right scrollVValue).
+            // Otherwise, use the zoom of the last time this document was opened.
+            DocumentViewStates.ViewState viewState = resetScrollValue ? null : DocumentViewStates.get(file);
             if(!hadOpenedFile){
                 if(MainWindow.userData.editPagesMode) zoomOperator.overviewWidth(true);
+                else if(viewState != null && viewState.zoom() > 0) zoomOperator.zoom(viewState.zoom(), true);
                 else zoomOperator.fitWidth(true, false);
             }else zoomOperator.zoom(oldPaneScale, true);
             
@@ -593,6 +608,7 @@ public class MainScreen extends Pane {
             // Zoom #2. If had opened file, keep same zoom factor.
             if(!hadOpenedFile){
                 if(MainWindow.userData.editPagesMode) zoomOperator.overviewWidth(true);
+                else if(viewState != null && viewState.zoom() > 0) zoomOperator.zoom(viewState.zoom(), true);
                 else zoomOperator.fitWidth(true, false);
             }else zoomOperator.zoom(oldPaneScale, true);
             
@@ -641,7 +657,8 @@ public class MainScreen extends Pane {
             
             MainWindow.gradeTab.treeView.clearElements(false, false);
             MainWindow.textTab.treeView.onCloseDocument();
-            document.stopDocumentSaver();
+            EditionSaver.cancelAutoSave();
+            EditionSaver.flush();
             document.close();
             document = null;
             SideBar.selectTab(MainWindow.filesTab);
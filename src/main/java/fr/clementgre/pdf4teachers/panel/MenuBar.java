@@ -13,6 +13,7 @@ import fr.clementgre.pdf4teachers.components.menus.NodeMenuItem;
 import fr.clementgre.pdf4teachers.components.menus.NodeRadioMenuItem;
 import fr.clementgre.pdf4teachers.document.editions.Edition;
 import fr.clementgre.pdf4teachers.document.editions.EditionExporter;
+import fr.clementgre.pdf4teachers.document.editions.EditionFiles;
 import fr.clementgre.pdf4teachers.document.editions.elements.Element;
 import fr.clementgre.pdf4teachers.document.editions.undoEngine.UndoEngine;
 import fr.clementgre.pdf4teachers.document.render.convert.ConvertDocument;
@@ -58,7 +59,6 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Collections;
 import java.util.Map;
-import java.util.Objects;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 @SuppressWarnings("serial")
@@ -375,7 +375,7 @@ public class MenuBar extends javafx.scene.control.MenuBar {
         tools5DeleteAllEdits.setOnAction((ActionEvent e) -> {
             CustomAlert dialog = new CustomAlert(Alert.AlertType.WARNING, TR.tr("dialog.deleteEdits.confirmation.title"), TR.tr("dialog.deleteEdits.confirmation.header"));
             
-            float yesButSize = FilesUtils.convertBytesToMegaBytes(FilesUtils.getSize(new File(Main.dataFolder + "editions").toPath()));
+            float yesButSize = FilesUtils.convertBytesToMegaBytes(FilesUtils.getSize(EditionFiles.getEditionsDir().toPath()));
             float yesSize = 0L;
             for(File file : MainWindow.filesTab.files.getItems()){
                 File editFile = Edition.getEditFile(file);
@@ -395,7 +395,7 @@ public class MenuBar extends javafx.scene.control.MenuBar {
                 size = yesSize;
             }else if(option == ButtonPosition.OTHER_RIGHT){
                 if(MainWindow.mainScreen.hasDocument(false)) MainWindow.mainScreen.document.edition.clearEdit(false);
-                for(File file : Objects.requireNonNull(new File(Main.dataFolder + "editions").listFiles()))
+                for(File file : EditionFiles.getEditFiles())
                     file.delete();
                 size = yesButSize;
             }else return;
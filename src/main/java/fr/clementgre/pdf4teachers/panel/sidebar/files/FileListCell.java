@@ -7,9 +7,12 @@ package fr.clementgre.pdf4teachers.panel.sidebar.files;
 
 import fr.clementgre.pdf4teachers.components.menus.NodeMenuItem;
 import fr.clementgre.pdf4teachers.document.editions.Edition;
+import fr.clementgre.pdf4teachers.document.editions.EditionIndex;
+import fr.clementgre.pdf4teachers.document.editions.data.EditionSummary;
 import fr.clementgre.pdf4teachers.document.render.export.ExportWindow;
 import fr.clementgre.pdf4teachers.interfaces.windows.MainWindow;
 import fr.clementgre.pdf4teachers.interfaces.windows.language.TR;
+import fr.clementgre.pdf4teachers.interfaces.windows.log.Log;
 import fr.clementgre.pdf4teachers.utils.FilesUtils;
 import fr.clementgre.pdf4teachers.utils.StringUtils;
 import fr.clementgre.pdf4teachers.utils.dialogs.alerts.ConfirmAlert;
@@ -31,6 +34,9 @@ import javafx.scene.layout.VBox;
 
 import java.io.File;
 import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class FileListCell extends ListCell<File> {
     
@@ -42,6 +48,14 @@ public class FileListCell extends ListCell<File> {
     private final ImageView check = new ImageView();
     private final ImageView checkLow = new ImageView();
     
+    // Bounded: scrolling through a long list does not read many edit files at once.
+    private static final ExecutorService statsExecutor = Executors.newFixedThreadPool(2, r -> {
+        Thread thread = new Thread(r, "File List Stats");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> statsTask;
+    
     private final EventHandler<MouseEvent> onClick = e -> {
         if(e.getButton().equals(MouseButton.PRIMARY) && e.getClickCount() == 2)
             MainWindow.mainScreen.openFile(getItem());
@@ -70,6 +84,7 @@ public class FileListCell extends ListCell<File> {
         super.updateItem(file, empty);
         
         if(empty){
+            cancelStatsTask();
             setGraphic(null);
             setTooltip(null);
             setContextMenu(null);
@@ -93,81 +108,10 @@ public class FileListCell extends ListCell<File> {
             
             nameBox.getChildren().clear();
             
-            try{
-                Edition.EditionStats stats = Edition.getEditionStats(Edition.getEditFile(file));
-    
-                
-                
-                if(stats == null){ // don't have edit file
-                    path.setText(path.getText() + " | " + TR.tr("document.status.noEdit"));
-                    setTooltip(PaneUtils.genToolTip(TR.tr("document.status.noEdit")));
-                    
-                }else{
-                    String gradeInfo = null;
-                    String gradeCount = null;
-                    if(stats.totalGradeOutOf() != 0){
-                        gradeInfo = (stats.totalGradeValue() == -1 ? "?" : format(stats.totalGradeValue())) + "/" + format(stats.totalGradeOutOf());
-                        gradeCount = stats.filledGrades() + "/" + stats.grades();
-                    }
-                    String skillsCount = null;
-                    String assessmentName = null;
-                    if(stats.assessment() != null && stats.skills() != 0){
-                        skillsCount = stats.filledNotations() + "/" + stats.skills();
-                        assessmentName = stats.assessment().getName();
-                    }
-                    
-                    
-                    if(stats.totalElements() == 0 && gradeInfo == null && assessmentName == null){ // Don't have elements
-                        path.setText(path.getText() + " | " + TR.tr("document.status.noEdit"));
-                        setTooltip(PaneUtils.genToolTip(TR.tr("document.status.noEdit")));
-        
-                    }else{
-                        String after = "";
-                        if(gradeInfo != null) after += " | " + gradeInfo;
-                        if(assessmentName != null) after += " | " + assessmentName;
-                        
-                        if(stats.totalElements() == 0){ // Don't have elements but have a grade scale OR assessment
-                            
-                            path.setText(path.getText() + " | " + TR.tr("document.status.noEdit") + after);
-                            setTooltip(PaneUtils.genToolTip(TR.tr("document.status.noEdit") + after +
-                                    (assessmentName == null ? "" : "\n" + stats.skills() + " " + TR.tr("elements.name.skills")) +
-                                    (gradeInfo == null ? "" : "\n" + stats.grades() + " " + TR.tr("elements.name.gradeScales")) ));
-        
-                        }else{ // Have at least one visible element
-                            name.setStyle("-fx-font-size: 12; -fx-font-weight: bold;");
-        
-                            path.setText(path.getText() + " | " + stats.totalElements() + " " + TR.tr("elements.name") + after);
-        
-                            setTooltip(PaneUtils.genToolTip(stats.totalElements() + " " + TR.tr("elements.name") + after +
-                                    (assessmentName == null ? "" : "\n" + skillsCount + " " + TR.tr("elements.name.skills")) +
-                                    (gradeInfo == null ? "" : "\n" + gradeCount + " " + TR.tr("elements.name.grades")) +
-                                    "\n" + stats.texts() + " " + TR.tr("elements.name.texts") +
-                                    "\n" + stats.graphics() + " " + TR.tr("elements.name.paints") ));
-        
-        
-                            if(gradeInfo != null || assessmentName != null){
-                                
-                                if((gradeInfo == null || (stats.filledGrades() == stats.grades() && stats.grades() > 0))
-                                        && (assessmentName == null || (stats.filledNotations() == stats.skills() && stats.skills() > 0))){ // Edition completed : Green check
-        
-                                    if(check.getImage() == null)
-                                        check.setImage(new Image(getClass().getResource("/img/FilesTab/check.png") + ""));
-                                    nameBox.getChildren().add(check);
-                                }else if(stats.filledGrades() > 0 || stats.filledNotations() > 0){ // Edition semi-completed : Orange check
-                                    if(checkLow.getImage() == null)
-                                        checkLow.setImage(new Image(getClass().getResource("/img/FilesTab/check_low.png") + ""));
-                                    nameBox.getChildren().add(checkLow);
-                                }
-                                
-                            }
-                        }
-                    }
-                }
-                
-            }catch(Exception e){
-                path.setText(path.getText() + " | " + TR.tr("document.status.unableToCheckStatus"));
-                setTooltip(PaneUtils.genWrappedToolTip(e.getMessage()));
-            }
+            // Stats are loaded in background, the cell shows only the path until they are displayed.
+            setTooltip(null);
+            updateStats();
+            
             nameBox.getChildren().add(name);
             setGraphic(pane);
             
@@ -237,6 +181,117 @@ public class FileListCell extends ListCell<File> {
         }
     }
     
+    public void cancelStatsTask(){
+        if(statsTask != null){
+            statsTask.cancel(false);
+            statsTask = null;
+        }
+    }
+    
+    // Reloads the stats of the file, without updating the rest of the cell.
+    public void updateStats(){
+        if(isEmpty() || getItem() == null) return;
+        cancelStatsTask();
+        File file = getItem();
+        String pathText = FilesUtils.getPathReplacingUserHome(file.getParent());
+        statsTask = statsExecutor.submit(() -> loadStats(file, pathText));
+    }
+    
+    // Called on a stats thread: the edit file is read only if its summary is not in the EditionIndex.
+    private void loadStats(File file, String pathText){
+        try{
+            EditionSummary summary = EditionIndex.get(Edition.getEditFile(file));
+            Platform.runLater(() -> {
+                if(file.equals(getItem())) displayStats(Edition.getEditionStats(summary), pathText);
+            });
+        }catch(Exception e){
+            Log.e(e);
+            Platform.runLater(() -> {
+                if(!file.equals(getItem())) return;
+                resetStats(pathText);
+                path.setText(path.getText() + " | " + TR.tr("document.status.unableToCheckStatus"));
+                setTooltip(PaneUtils.genWrappedToolTip(e.getMessage()));
+            });
+        }
+    }
+    
+    private void resetStats(String pathText){
+        path.setText(pathText);
+        name.setStyle("-fx-font-size: 13;");
+        nameBox.getChildren().removeAll(check, checkLow);
+        setTooltip(null);
+    }
+    
+    private void displayStats(Edition.EditionStats stats, String pathText){
+        resetStats(pathText);
+        
+        if(stats == null){ // don't have edit file
+            path.setText(path.getText() + " | " + TR.tr("document.status.noEdit"));
+            setTooltip(PaneUtils.genToolTip(TR.tr("document.status.noEdit")));
+        
+        }else{
+            String gradeInfo = null;
+            String gradeCount = null;
+            if(stats.totalGradeOutOf() != 0){
+                gradeInfo = (stats.totalGradeValue() == -1 ? "?" : format(stats.totalGradeValue())) + "/" + format(stats.totalGradeOutOf());
+                gradeCount = stats.filledGrades() + "/" + stats.grades();
+            }
+            String skillsCount = null;
+            String assessmentName = null;
+            if(stats.assessment() != null && stats.skills() != 0){
+                skillsCount = stats.filledNotations() + "/" + stats.skills();
+                assessmentName = stats.assessment().getName();
+            }
+            
+            
+            if(stats.totalElements() == 0 && gradeInfo == null && assessmentName == null){ // Don't have elements
+                path.setText(path.getText() + " | " + TR.tr("document.status.noEdit"));
+                setTooltip(PaneUtils.genToolTip(TR.tr("document.status.noEdit")));
+            
+            }else{
+                String after = "";
+                if(gradeInfo != null) after += " | " + gradeInfo;
+                if(assessmentName != null) after += " | " + assessmentName;
+                
+                if(stats.totalElements() == 0){ // Don't have elements but have a grade scale OR assessment
+                    
+                    path.setText(path.getText() + " | " + TR.tr("document.status.noEdit") + after);
+                    setTooltip(PaneUtils.genToolTip(TR.tr("document.status.noEdit") + after +
+                            (assessmentName == null ? "" : "\n" + stats.skills() + " " + TR.tr("elements.name.skills")) +
+                            (gradeInfo == null ? "" : "\n" + stats.grades() + " " + TR.tr("elements.name.gradeScales")) ));
+                
+                }else{ // Have at least one visible element
+                    name.setStyle("-fx-font-size: 12; -fx-font-weight: bold;");
+                    
+                    path.setText(path.getText() + " | " + stats.totalElements() + " " + TR.tr("elements.name") + after);
+                    
+                    setTooltip(PaneUtils.genToolTip(stats.totalElements() + " " + TR.tr("elements.name") + after +
+                            (assessmentName == null ? "" : "\n" + skillsCount + " " + TR.tr("elements.name.skills")) +
+                            (gradeInfo == null ? "" : "\n" + gradeCount + " " + TR.tr("elements.name.grades")) +
+                            "\n" + stats.texts() + " " + TR.tr("elements.name.texts") +
+                            "\n" + stats.graphics() + " " + TR.tr("elements.name.paints") ));
+                    
+                    
+                    if(gradeInfo != null || assessmentName != null){
+                        
+                        if((gradeInfo == null || (stats.filledGrades() == stats.grades() && stats.grades() > 0))
+                                && (assessmentName == null || (stats.filledNotations() == stats.skills() && stats.skills() > 0))){ // Edition completed : Green check
+                            
+                            if(check.getImage() == null)
+                                check.setImage(new Image(getClass().getResource("/img/FilesTab/check.png") + ""));
+                            nameBox.getChildren().add(0, check);
+                        }else if(stats.filledGrades() > 0 || stats.filledNotations() > 0){ // Edition semi-completed : Orange check
+                            if(checkLow.getImage() == null)
+                                checkLow.setImage(new Image(getClass().getResource("/img/FilesTab/check_low.png") + ""));
+                            nameBox.getChildren().add(0, checkLow);
+                        }
+                    
+                    }
+                }
+            }
+        }
+    }
+    
     private String format(double value){
         return MainWindow.twoDigFormat.format(value);
     }
@@ -12,9 +12,15 @@ import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 public class FileListView extends ListView<File>{
     
+    // Cells created by the ListView, weakly referenced: the ListView discards some cells when it is resized.
+    private final Set<FileListCell> cells = Collections.newSetFromMap(new WeakHashMap<>());
+    
     public FileListView(){
         
         setBorder(null);
@@ -25,7 +31,18 @@ public class FileListView extends ListView<File>{
             refresh();
         });
         
-        setCellFactory(param -> new FileListCell());
+        setCellFactory(param -> {
+            FileListCell cell = new FileListCell();
+            cells.add(cell);
+            return cell;
+        });
+    }
+    
+    // Reloads the stats of the cell that displays this file, instead of updating all the cells (refresh()).
+    public void refreshFile(File file){
+        for(FileListCell cell : cells){
+            if(file.equals(cell.getItem())) cell.updateStats();
+        }
     }
     
 }
\ No newline at end of file
@@ -6,6 +6,7 @@
 package fr.clementgre.pdf4teachers.panel.sidebar.files;
 
 import fr.clementgre.pdf4teachers.document.editions.Edition;
+import fr.clementgre.pdf4teachers.document.editions.EditionIndex;
 import fr.clementgre.pdf4teachers.document.render.convert.ConvertDocument;
 import fr.clementgre.pdf4teachers.document.render.convert.ConvertRenderer;
 import fr.clementgre.pdf4teachers.document.render.display.PDFPagesRender;
@@ -228,6 +229,7 @@ public class FileTab extends SideTab {
             openFile(file);
         }
         if(files.length != 0) SideBar.selectTab(this);
+        updateEditionIndex();
     }
     
     public void openFiles(List<File> files){
@@ -235,6 +237,12 @@ public class FileTab extends SideTab {
             openFile(file);
         }
         if(!files.isEmpty()) SideBar.selectTab(this);
+        updateEditionIndex();
+    }
+    
+    // The stats of the files that are not in the index yet are displayed once they are computed.
+    private void updateEditionIndex(){
+        EditionIndex.updateInBackground(files.getItems().stream().map(Edition::getEditFile).toList(), files::refresh);
     }
     
     public void clearFiles(){
@@ -6,8 +6,8 @@
 package fr.clementgre.pdf4teachers.panel.sidebar.grades;
 
 import fr.clementgre.pdf4teachers.document.editions.Edition;
-import fr.clementgre.pdf4teachers.document.editions.elements.Element;
-import fr.clementgre.pdf4teachers.document.editions.elements.GradeElement;
+import fr.clementgre.pdf4teachers.document.editions.data.EditionData;
+import fr.clementgre.pdf4teachers.document.editions.data.GradeElementData;
 import fr.clementgre.pdf4teachers.interfaces.windows.MainWindow;
 import fr.clementgre.pdf4teachers.interfaces.windows.language.TR;
 import fr.clementgre.pdf4teachers.interfaces.windows.log.Log;
@@ -20,7 +20,6 @@ import javafx.scene.control.CheckBox;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.List;
 import java.util.regex.Pattern;
 
 public class GradeCopyGradeScaleDialog {
@@ -77,11 +76,8 @@ public class GradeCopyGradeScaleDialog {
         File editFile = Edition.getEditFile(MainWindow.mainScreen.document.getFile());
         
         try{
-            Element[] elements = Edition.simpleLoad(editFile);
-            for(Element element : elements){
-                if(element instanceof GradeElement){
-                    ratings.add(((GradeElement) element).toGradeRating());
-                }
+            for(GradeElementData grade : EditionData.load(editFile).grades()){
+                ratings.add(grade.toGradeRating());
             }
         }catch(Exception e){
             Log.eNotified(e);
@@ -93,13 +89,9 @@ public class GradeCopyGradeScaleDialog {
         try{
             File editFile = Edition.getEditFile(file);
             
-            Element[] elementsArray = Edition.simpleLoad(editFile);
-            ArrayList<GradeElement> gradeElements = new ArrayList<>();
-            List<Element> otherElements = new ArrayList<>();
-            for(Element element : elementsArray){
-                if(element instanceof GradeElement) gradeElements.add((GradeElement) element);
-                else otherElements.add(element);
-            }
+            EditionData edition = EditionData.load(editFile);
+            ArrayList<GradeElementData> gradeElements = new ArrayList<>(edition.grades());
+            ArrayList<GradeElementData> newGradeElements = new ArrayList<>();
             
             if(gradeElements.size() >= 1 && !ignoreAlreadyExist){
                 CustomAlert alert = new CustomAlert(Alert.AlertType.WARNING, TR.tr("gradeTab.copyGradeScaleDialog.error.alreadyGradeScale.title"),
@@ -125,23 +117,23 @@ public class GradeCopyGradeScaleDialog {
             
             for(GradeRating rating : ratings){
                 
-                GradeElement element = rating.getSamePathIn(gradeElements);
+                GradeElementData element = rating.getSameDataPathIn(gradeElements);
                 if(element != null){
                     if(copyLocations && rating.isEligibleForAlwaysVisible()){ // alwaysVisible == true, use source grade position
-                        otherElements.add(rating.toGradeElement(element.getValue(), true));
+                        newGradeElements.add(rating.toGradeElementData(element.value(), true));
                     }else{ // alwaysVisible == false, use destination grade position and value
-                        otherElements.add(rating.toGradeElement(element.getValue(), false, element.getRealX(), element.getRealY(), element.getPageNumber()));
+                        newGradeElements.add(rating.toGradeElementData(element.value(), false, element.x(), element.y(), element.page()));
                     }
                     gradeElements.remove(element);
                 }else{
-                    otherElements.add(rating.toGradeElement(-1, copyLocations && rating.isEligibleForAlwaysVisible()));
+                    newGradeElements.add(rating.toGradeElementData(-1, copyLocations && rating.isEligibleForAlwaysVisible()));
                 }
             }
             
             if(gradeElements.size() >= 1 && !ignoreErase){
                 String grades = "";
-                for(GradeElement grade : gradeElements){
-                    grades += "\n" + grade.getParentPath().replaceAll(Pattern.quote("\\"), "/") + "/" + grade.getName() + "  (" + MainWindow.gradesDigFormat.format(grade.getValue()).replaceAll("-1", "?") + "/" + MainWindow.gradesDigFormat.format(grade.getTotal()) + ")";
+                for(GradeElementData grade : gradeElements){
+                    grades += "\n" + grade.parentPath().replaceAll(Pattern.quote("\\"), "/") + "/" + grade.name() + "  (" + MainWindow.gradesDigFormat.format(grade.value()).replaceAll("-1", "?") + "/" + MainWindow.gradesDigFormat.format(grade.total()) + ")";
                 }
                 
                 CustomAlert alert = new CustomAlert(Alert.AlertType.WARNING, TR.tr("gradeTab.copyGradeScaleDialog.error.alreadyGradeScaleErase.title"),
@@ -162,9 +154,7 @@ public class GradeCopyGradeScaleDialog {
                 
             }
             
-            otherElements = GradeElement.sortGradesBetweenNormalElements(otherElements);
-            
-            Edition.simpleSave(editFile, otherElements.toArray(new Element[0]));
+            edition.withGrades(GradeElementData.sortGrades(newGradeElements)).save(editFile);
             return 0;
             
         }catch(Exception e){
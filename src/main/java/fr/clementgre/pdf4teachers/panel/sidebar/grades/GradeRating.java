@@ -5,9 +5,11 @@
 
 package fr.clementgre.pdf4teachers.panel.sidebar.grades;
 
+import fr.clementgre.pdf4teachers.document.editions.data.GradeElementData;
 import fr.clementgre.pdf4teachers.document.editions.elements.GradeElement;
 
 import java.util.ArrayList;
+import java.util.List;
 
 public class GradeRating {
     
@@ -43,6 +45,14 @@ public class GradeRating {
         return new GradeElement(x, y, page, false, value, total, outOfTotal, index, parentPath, name, alwaysVisible);
     }
     
+    public GradeElementData toGradeElementData(double value, boolean alwaysVisible, int x, int y, int page){
+        return new GradeElementData(page, x, y, index, parentPath, value, total, outOfTotal, name, alwaysVisible);
+    }
+    
+    public GradeElementData toGradeElementData(double value, boolean alwaysVisible){
+        return new GradeElementData(page, x, y, index, parentPath, value, total, outOfTotal, name, alwaysVisible);
+    }
+    
     public boolean equals(GradeRating gradeRating){
         return total == gradeRating.total && name.equals(gradeRating.name) && index == gradeRating.index && parentPath.equals(gradeRating.parentPath);
     }
@@ -66,4 +76,11 @@ public class GradeRating {
                 .findFirst()
                 .orElse(null);
     }
+    
+    public GradeElementData getSameDataPathIn(List<GradeElementData> array){
+        return array.stream()
+                .filter(element -> name.equals(element.name()) && parentPath.equals(element.parentPath()))
+                .findFirst()
+                .orElse(null);
+    }
 }
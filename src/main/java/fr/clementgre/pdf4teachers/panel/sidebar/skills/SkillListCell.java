@@ -124,7 +124,7 @@ public class SkillListCell extends ListCell<Skill> {
                 editionSkill.setNotationId(0);
                 MainWindow.skillsTab.refreshListView();
                 getSkillTableElement().updateSkillsNotation();
-                Edition.setUnsave("SkillListCell ComboBox notation changed");
+                Edition.setUnsave("SkillListCell ComboBox notation changed", getSkillTableElement());
             }
         });
         
@@ -142,7 +142,7 @@ public class SkillListCell extends ListCell<Skill> {
                 if(i.get() != 0){
                     MainWindow.skillsTab.refreshListView();
                     getSkillTableElement().updateSkillsNotation();
-                    Edition.setUnsave("SkillListCell ComboBox notation changed");
+                    Edition.setUnsave("SkillListCell ComboBox notation changed", getSkillTableElement());
                 }
             }
         });
@@ -225,7 +225,7 @@ public class SkillListCell extends ListCell<Skill> {
                     MainWindow.mainScreen.getUndoEngine().registerNewAction(new SkillUndoAction(UType.UNDO, getSkillAssessment().getId(), skill.getId(), editionSkill.getNotationId()));
                     editionSkill.setNotationId(newId);
                     getSkillTableElement().updateSkillsNotation();
-                    Edition.setUnsave("SkillListCell ComboBox notation changed");
+                    Edition.setUnsave("SkillListCell ComboBox notation changed", getSkillTableElement());
                 }
             });
     
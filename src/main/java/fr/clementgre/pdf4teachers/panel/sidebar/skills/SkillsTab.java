@@ -238,7 +238,7 @@ public class SkillsTab extends SideTab {
                     getSkillTableElement().setStudentId(getCurrentStudentIdOr0());
                     getSkillTableElement().tryLoadFromStudent(oldValue);
 
-                    Edition.setUnsave("Changed selected Student");
+                    Edition.setUnsave("Changed selected Student", getSkillTableElement());
                 }
             }else if(getCurrentAssessment() != null){
                 addSkillTableElement();
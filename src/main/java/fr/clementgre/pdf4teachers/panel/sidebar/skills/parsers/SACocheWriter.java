@@ -7,10 +7,10 @@ package fr.clementgre.pdf4teachers.panel.sidebar.skills.parsers;
 
 import com.opencsv.CSVWriterBuilder;
 import com.opencsv.ICSVWriter;
-import fr.clementgre.pdf4teachers.Main;
 import fr.clementgre.pdf4teachers.document.editions.Edition;
-import fr.clementgre.pdf4teachers.document.editions.elements.Element;
-import fr.clementgre.pdf4teachers.document.editions.elements.SkillTableElement;
+import fr.clementgre.pdf4teachers.document.editions.EditionFiles;
+import fr.clementgre.pdf4teachers.document.editions.data.EditionData;
+import fr.clementgre.pdf4teachers.document.editions.data.SkillTableElementData;
 import fr.clementgre.pdf4teachers.interfaces.windows.MainWindow;
 import fr.clementgre.pdf4teachers.interfaces.windows.language.TR;
 import fr.clementgre.pdf4teachers.interfaces.windows.log.Log;
@@ -123,25 +123,22 @@ public class SACocheWriter {
     
         ArrayList<StudentGrades> studentGrades = new ArrayList<>();
         
-        File editDir = new File(Main.dataFolder + "editions");
-        if(!editDir.exists()) return List.of();
     
         HashMap<String, ArrayList<String>> doubleAffectation = new HashMap<>();
         ArrayList<String> aloneStudents = new ArrayList<>();
         ArrayList<String> aloneDocuments = new ArrayList<>();
         
         
-        for(File edit : Objects.requireNonNull(editDir.listFiles())){
-            Element[] elements = {};
+        for(File edit : EditionFiles.getEditFiles()){
+            SkillTableElementData skillTable = null;
             try{
-                elements = Edition.simpleLoad(edit);
+                skillTable = EditionData.load(edit).skillTable();
             }catch(Exception e){ Log.eNotified(e); }
             
-            SkillTableElement skillTableElement = (SkillTableElement) Arrays.stream(elements).filter(e -> e instanceof SkillTableElement).findFirst().orElse(null);
-            
-            if(skillTableElement != null && skillTableElement.getAssessmentId() == assessment.getId()){
+            if(skillTable != null && skillTable.assessmentId() == assessment.getId()){
                 
-                Optional<Student> studentOptional = assessment.getStudents().stream().filter(s -> s.id() == skillTableElement.getStudentId()).findAny();
+                long studentId = skillTable.studentId();
+                Optional<Student> studentOptional = assessment.getStudents().stream().filter(s -> s.id() == studentId).findAny();
                 if(studentOptional.isPresent()){
                     Student student = studentOptional.get();
                     
@@ -156,7 +153,7 @@ public class SACocheWriter {
                                     ).distinct().collect(Collectors.toList())));
                         }
                     });
-                    studentGrades.add(new StudentGrades(student.id(), student.name(), Edition.getFileFromEdit(edit).getName(), skillTableElement.getEditionSkills()));
+                    studentGrades.add(new StudentGrades(student.id(), student.name(), Edition.getFileFromEdit(edit).getName(), skillTable.editionSkills()));
                 }else{
                     aloneDocuments.add(Edition.getFileFromEdit(edit).getName());
                 }
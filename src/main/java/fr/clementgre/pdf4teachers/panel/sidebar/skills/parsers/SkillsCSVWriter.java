@@ -7,10 +7,10 @@ package fr.clementgre.pdf4teachers.panel.sidebar.skills.parsers;
 
 import com.opencsv.CSVWriterBuilder;
 import com.opencsv.ICSVWriter;
-import fr.clementgre.pdf4teachers.Main;
 import fr.clementgre.pdf4teachers.document.editions.Edition;
-import fr.clementgre.pdf4teachers.document.editions.elements.Element;
-import fr.clementgre.pdf4teachers.document.editions.elements.SkillTableElement;
+import fr.clementgre.pdf4teachers.document.editions.EditionFiles;
+import fr.clementgre.pdf4teachers.document.editions.data.EditionData;
+import fr.clementgre.pdf4teachers.document.editions.data.SkillTableElementData;
 import fr.clementgre.pdf4teachers.interfaces.windows.MainWindow;
 import fr.clementgre.pdf4teachers.interfaces.windows.language.TR;
 import fr.clementgre.pdf4teachers.interfaces.windows.log.Log;
@@ -120,18 +120,15 @@ public class SkillsCSVWriter {
         
         ArrayList<EditionGrades> fileGrades = new ArrayList<>();
         
-        File editDir = new File(Main.dataFolder + "editions");
-        if(!editDir.exists()) return List.of();
         
         
-        for(File edit : Objects.requireNonNull(editDir.listFiles())){
+        for(File edit : EditionFiles.getEditFiles()){
             try{
     
-                Element[] elements = Edition.simpleLoad(edit);
-                SkillTableElement skillTableElement = (SkillTableElement) Arrays.stream(elements).filter(e -> e instanceof SkillTableElement).findFirst().orElse(null);
+                SkillTableElementData skillTable = EditionData.load(edit).skillTable();
     
-                if(skillTableElement != null && skillTableElement.getAssessmentId() == assessment.getId()){
-                    fileGrades.add(new EditionGrades(FilesUtils.getNameWithoutExtension(Edition.getFileFromEdit(edit).toPath()), skillTableElement.getEditionSkills()));
+                if(skillTable != null && skillTable.assessmentId() == assessment.getId()){
+                    fileGrades.add(new EditionGrades(FilesUtils.getNameWithoutExtension(Edition.getFileFromEdit(edit).toPath()), skillTable.editionSkills()));
                 }
                 
                 
@@ -193,7 +193,7 @@ public class TextTab extends SideTab {
                 sizeSpinner.getValueFactory().setValue(current.getFont().getSize());
 
                 current.fontProperty().bind(Bindings.createObjectBinding(() -> {
-                    Edition.setUnsave("TextElement FontChanged");
+                    Edition.setUnsave("TextElement FontChanged", current);
                     return getFont();
                 }, fontCombo.getSelectionModel().selectedItemProperty(), sizeSpinner.valueProperty(), itBtn.selectedProperty(), boldBtn.selectedProperty()));
             }
@@ -262,7 +262,7 @@ public class TextTab extends SideTab {
             if(MainWindow.mainScreen.getSelected() != null){
                 if(MainWindow.mainScreen.getSelected() instanceof TextElement){
                     ((TextElement) MainWindow.mainScreen.getSelected()).setColor(colorPicker.getValue());
-                    Edition.setUnsave("TextElement color changed");
+                    Edition.setUnsave("TextElement color changed", MainWindow.mainScreen.getSelected());
                 }
             }
         });
@@ -15,6 +15,10 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class TwoStepListAction<T, D>{
     
@@ -40,11 +44,21 @@ public class TwoStepListAction<T, D>{
     }
     
     public TwoStepListAction(boolean async, boolean recursive, TwoStepListInterface<T, D> caller){
+        this(async ? 1 : 0, recursive, caller);
+    }
+    
+    // workers = 0: the data is processed on the calling thread, 1: by a background thread (processDataAsync()),
+    // more: by several background threads (processDataParallel()), completeData() must then be thread safe.
+    public TwoStepListAction(int workers, boolean recursive, TwoStepListInterface<T, D> caller){
         this.recursive = recursive;
         this.data = caller.prepare(isRecursive());
         
         if(sortData(caller)){
-            if(async){
+            if(workers > 1){
+                processDataParallel(caller, workers, () -> {
+                    caller.finish(data.size(), sortedData.size(), completedSize, excludedReasons, isRecursive());
+                });
+            }else if(workers == 1){
                 processDataAsync(caller, () -> {
                     caller.finish(data.size(), sortedData.size(), completedSize, excludedReasons, isRecursive());
                 });
@@ -96,7 +110,7 @@ public class TwoStepListAction<T, D>{
         return true;
     }
     
-    private boolean shouldStop;
+    private volatile boolean shouldStop;
     public void processDataAsync(TwoStepListInterface<T, D> caller, CallBack callBack){
         LoadingAlert loadingAlert = new LoadingAlert(true, TR.tr("dialogs.asyncAction.header.title"), TR.tr("dialogs.asyncAction.header"));
         loadingAlert.setTotal(sortedData.size());
@@ -139,6 +153,71 @@ public class TwoStepListAction<T, D>{
         
     }
     
+    // The data is processed by several workers, but the results are handled in the order of the data:
+    // the progress is reported in order, and a STOP or STOP_WITHOUT_ALERT result stops the processing like in processDataAsync().
+    // The data that was being processed when the processing stopped is completed, the data that was not started is not processed.
+    public void processDataParallel(TwoStepListInterface<T, D> caller, int workers, CallBack callBack){
+        LoadingAlert loadingAlert = new LoadingAlert(true, TR.tr("dialogs.asyncAction.header.title"), TR.tr("dialogs.asyncAction.header"));
+        loadingAlert.setTotal(sortedData.size());
+        
+        loadingAlert.showAsync(() -> { // Cancel button click event
+            shouldStop = true;
+        });
+        
+        ExecutorService executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "TwoStepListAction Parallel data processing");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<ProcessResult>> results = new ArrayList<>();
+        for(D value : sortedData){
+            // null: not processed because the processing has been stopped
+            results.add(executor.submit(() -> {
+                if(shouldStop) return null;
+                ProcessResult result = caller.completeData(value, isRecursive());
+                // The other workers stop right away: the results are only handled in order, maybe after a longer processing.
+                if(result == ProcessResult.STOP || result == ProcessResult.STOP_WITHOUT_ALERT) shouldStop = true;
+                return result;
+            }));
+        }
+        executor.shutdown();
+        
+        new Thread(() -> {
+            boolean isCanceled = false;
+            boolean isStopped = false;
+            for(int i = 0; i < sortedData.size(); i++){
+                D value = sortedData.get(i);
+                ProcessResult result;
+                try{
+                    result = results.get(i).get();
+                }catch(InterruptedException | ExecutionException e){
+                    Log.e(e);
+                    result = ProcessResult.SKIPPED;
+                }
+                if(result == null) continue;
+                
+                if(result == ProcessResult.OK) completedSize++;
+                else if(result == ProcessResult.STOP) isStopped = true;
+                else if(result == ProcessResult.STOP_WITHOUT_ALERT) isCanceled = true;
+                
+                int finalCompletedSize = completedSize;
+                Platform.runLater(() -> {
+                    loadingAlert.setCurrentTaskText(caller.getSortedDataName(value, isRecursive()));
+                    loadingAlert.setProgress(finalCompletedSize);
+                });
+            }
+            if(shouldStop && !isStopped) isCanceled = true; // Cancel button
+            
+            boolean finalIsCanceled = isCanceled;
+            Platform.runLater(() -> {
+                loadingAlert.close();
+                if(!finalIsCanceled){
+                    callBack.call();
+                }
+            });
+        }, "TwoStepListAction Parallel data results").start();
+    }
+    
     public boolean isRecursive(){
         return recursive;
     }
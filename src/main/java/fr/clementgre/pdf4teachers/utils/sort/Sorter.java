@@ -10,6 +10,7 @@ import fr.clementgre.pdf4teachers.interfaces.windows.log.Log;
 import fr.clementgre.pdf4teachers.panel.sidebar.texts.TextTreeItem;
 
 import java.io.File;
+import java.util.HashMap;
 import java.util.List;
 
 public class Sorter {
@@ -41,24 +42,21 @@ public class Sorter {
     
     public static List<File> sortFilesByEdit(List<File> files, boolean order){
         
-        files.sort((file1, file2) -> {
-            
-            int file1Elements = 0;
-            if(Edition.getEditFile(file1).exists()){
-                try{
-                    file1Elements = Edition.countElements(Edition.getEditFile(file1));
-                }catch(Exception e){
-                    Log.eNotified(e);
-                }
-            }
-            int file2Elements = 0;
-            if(Edition.getEditFile(file2).exists()){
-                try{
-                    file2Elements = Edition.countElements(Edition.getEditFile(file2));
-                }catch(Exception e){
-                    Log.eNotified(e);
-                }
+        // Each count is got once, not at each comparison. The edit files are read only if they are not in the EditionIndex.
+        HashMap<File, Integer> elementsCount = new HashMap<>();
+        for(File file : files){
+            int count = 0;
+            try{
+                count = Edition.countElements(Edition.getEditFile(file));
+            }catch(Exception e){
+                Log.eNotified(e);
             }
+            elementsCount.put(file, count);
+        }
+        
+        files.sort((file1, file2) -> {
+            int file1Elements = elementsCount.get(file1);
+            int file2Elements = elementsCount.get(file2);
     
             int result = ((file1Elements - 9999) + file1.getName() + file1.getParentFile().getAbsolutePath()).compareToIgnoreCase((file2Elements - 9999) + file2.getName() + file2.getParentFile().getAbsolutePath());
             if(order) return result;